@@ -0,0 +1,31 @@
+package edu.byu.cs329.typechecker.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks with the GC profiler so allocation rates are reported.
+ *
+ * <p>Takes the usual JMH command line, as in "-p methods=100 TypeCheckBuilder".
+ */
+public class BenchmarkRunner {
+
+  /**
+   * Runs the benchmarks selected by the command line.
+   *
+   * @param args JMH command line options
+   * @throws CommandLineOptionException if the options are not valid
+   * @throws RunnerException if a benchmark fails
+   */
+  public static void main(String[] args) throws CommandLineOptionException, RunnerException {
+    CommandLineOptions commandLine = new CommandLineOptions(args);
+    new Runner(new OptionsBuilder()
+        .parent(commandLine)
+        .addProfiler(GCProfiler.class)
+        .build()).run();
+  }
+}
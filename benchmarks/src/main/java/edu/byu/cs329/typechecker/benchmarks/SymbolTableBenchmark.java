@@ -0,0 +1,69 @@
+package edu.byu.cs329.typechecker.benchmarks;
+
+import edu.byu.cs329.typechecker.BatchTypeChecker;
+import edu.byu.cs329.typechecker.ISymbolTable;
+import edu.byu.cs329.typechecker.ProgramGenerator;
+import edu.byu.cs329.typechecker.SymbolTableBuilder;
+import edu.byu.cs329.typechecker.TypeId;
+import java.util.concurrent.TimeUnit;
+import org.eclipse.jdt.core.dom.CompilationUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Measures local scopes: pushing a scope and adding a local per level, looking up
+ * the outermost local and a field from the innermost scope, then popping.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SymbolTableBenchmark {
+  @Param({"1", "8", "64"})
+  int depth;
+
+  @Param({"map", "flat"})
+  String kind;
+
+  ISymbolTable symbolTable = null;
+  String[] names = null;
+
+  @Setup
+  public void setup() {
+    String source = new ProgramGenerator(0, 4, 10, 3, 3, 1).generate(true).getSource();
+    CompilationUnit compilationUnit = new BatchTypeChecker().parse(source);
+    SymbolTableBuilder builder = new SymbolTableBuilder();
+    symbolTable = kind.equals("flat")
+        ? builder.getFlatSymbolTable(compilationUnit)
+        : builder.getSymbolTable(compilationUnit);
+    names = new String[depth];
+    for (int i = 0; i < depth; ++i) {
+      names[i] = "v" + i;
+    }
+  }
+
+  @Benchmark
+  public void scopes(Blackhole blackhole) {
+    for (int i = 0; i < depth; ++i) {
+      symbolTable.pushScope();
+      symbolTable.addLocal(names[i], TypeId.INT);
+    }
+    blackhole.consume(symbolTable.getTypeId(names[0]));
+    blackhole.consume(symbolTable.getTypeId("C.f"));
+    for (int i = 0; i < depth; ++i) {
+      symbolTable.popScope();
+    }
+  }
+}
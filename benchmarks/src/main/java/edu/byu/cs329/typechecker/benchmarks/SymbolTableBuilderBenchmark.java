@@ -0,0 +1,51 @@
+package edu.byu.cs329.typechecker.benchmarks;
+
+import edu.byu.cs329.typechecker.BatchTypeChecker;
+import edu.byu.cs329.typechecker.ISymbolTable;
+import edu.byu.cs329.typechecker.ProgramGenerator;
+import edu.byu.cs329.typechecker.SymbolTableBuilder;
+import java.util.concurrent.TimeUnit;
+import org.eclipse.jdt.core.dom.CompilationUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures building the class-level symbol table.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SymbolTableBuilderBenchmark {
+  @Param({"10", "100", "1000"})
+  int methods;
+
+  CompilationUnit compilationUnit = null;
+
+  @Setup
+  public void setup() {
+    String source = new ProgramGenerator(0, 4, methods, 3, 3, 1).generate(true).getSource();
+    compilationUnit = new BatchTypeChecker().parse(source);
+  }
+
+  @Benchmark
+  public ISymbolTable getSymbolTable() {
+    return new SymbolTableBuilder().getSymbolTable(compilationUnit);
+  }
+
+  @Benchmark
+  public ISymbolTable getFlatSymbolTable() {
+    return new SymbolTableBuilder().getFlatSymbolTable(compilationUnit);
+  }
+}
@@ -0,0 +1,77 @@
+package edu.byu.cs329.typechecker.benchmarks;
+
+import edu.byu.cs329.typechecker.BatchTypeChecker;
+import edu.byu.cs329.typechecker.ISymbolTable;
+import edu.byu.cs329.typechecker.ProgramGenerator;
+import edu.byu.cs329.typechecker.SymbolTableBuilder;
+import edu.byu.cs329.typechecker.TypeCheckBuilder;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import org.eclipse.jdt.core.dom.CompilationUnit;
+import org.junit.jupiter.api.DynamicNode;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures type checking a class with and without building the proof.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TypeCheckBuilderBenchmark {
+  @Param({"10", "100"})
+  int methods;
+
+  @Param({"4", "32"})
+  int statements;
+
+  @Param({"1", "8"})
+  int depth;
+
+  CompilationUnit compilationUnit = null;
+  SymbolTableBuilder symbolTableBuilder = new SymbolTableBuilder();
+
+  @Setup
+  public void setup() {
+    String source = new ProgramGenerator(0, 4, methods, 3, statements, depth)
+        .generate(true).getSource();
+    compilationUnit = new BatchTypeChecker().parse(source);
+  }
+
+  @Benchmark
+  public List<DynamicNode> proof() {
+    ISymbolTable symbolTable = symbolTableBuilder.getSymbolTable(compilationUnit);
+    List<DynamicNode> tests = new ArrayList<>();
+    new TypeCheckBuilder().getTypeChecker(symbolTable, compilationUnit, tests);
+    return tests;
+  }
+
+  @Benchmark
+  public List<DynamicNode> parallelProof() {
+    ISymbolTable symbolTable = symbolTableBuilder.getSymbolTable(compilationUnit);
+    List<DynamicNode> tests = new ArrayList<>();
+    new TypeCheckBuilder(ForkJoinPool.commonPool())
+        .getTypeChecker(symbolTable, compilationUnit, tests);
+    return tests;
+  }
+
+  @Benchmark
+  public boolean verdict() {
+    ISymbolTable symbolTable = symbolTableBuilder.getFlatSymbolTable(compilationUnit);
+    return new TypeCheckBuilder().isTypeSafe(symbolTable, compilationUnit);
+  }
+}
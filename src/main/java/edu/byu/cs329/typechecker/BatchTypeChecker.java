@@ -0,0 +1,697 @@
+package edu.byu.cs329.typechecker;
+
+import edu.byu.cs329.utils.AstNodePropertiesUtils;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.eclipse.jdt.core.dom.ASTNode;
+import org.eclipse.jdt.core.dom.CompilationUnit;
+import org.eclipse.jdt.core.dom.FieldDeclaration;
+import org.eclipse.jdt.core.dom.MethodDeclaration;
+import org.eclipse.jdt.core.dom.SingleVariableDeclaration;
+import org.eclipse.jdt.core.dom.TypeDeclaration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Type checks many source files in one JVM.
+ *
+ * <p>Each file is parsed, given a symbol table with {@link SymbolTableBuilder},
+ * and checked with {@link TypeCheckBuilder#isTypeSafe(ISymbolTable,
+ * org.eclipse.jdt.core.dom.ASTNode)}. Files are checked in parallel on a
+ * fork-join pool and the results are reported in input order.
+ */
+public class BatchTypeChecker {
+  static final Logger log = LoggerFactory.getLogger(BatchTypeChecker.class);
+  static final int DEFAULT_CACHE_CAPACITY = 100000;
+  static final int MAX_BATCH_SIZE = 64;
+
+  public enum Verdict {
+    TYPE_SAFE, NOT_TYPE_SAFE, FAILED
+  }
+
+  /**
+   * The outcome of checking one file.
+   */
+  public static class Result {
+    private final Path path;
+    private final Verdict verdict;
+    private final long elapsedNanos;
+    private final String message;
+    private final ProofTree proofTree;
+    private final List<Diagnostic> diagnostics;
+
+    Result(Path path, Verdict verdict, long elapsedNanos, String message,
+        ProofTree proofTree) {
+      this(path, verdict, elapsedNanos, message, proofTree, Collections.emptyList());
+    }
+
+    Result(Path path, Verdict verdict, long elapsedNanos, String message,
+        ProofTree proofTree, List<Diagnostic> diagnostics) {
+      this.path = path;
+      this.verdict = verdict;
+      this.elapsedNanos = elapsedNanos;
+      this.message = message;
+      this.proofTree = proofTree;
+      this.diagnostics = diagnostics;
+    }
+
+    public Path getPath() {
+      return path;
+    }
+
+    public Verdict getVerdict() {
+      return verdict;
+    }
+
+    public long getElapsedNanos() {
+      return elapsedNanos;
+    }
+
+    /**
+     * Gives the reason a file could not be checked.
+     *
+     * @return the failure message or null if the file was checked
+     */
+    public String getMessage() {
+      return message;
+    }
+
+    /**
+     * Gives the proof behind the verdict.
+     *
+     * @return the proof or null if it was not asked for or the file was not checked
+     */
+    public ProofTree getProofTree() {
+      return proofTree;
+    }
+
+    /**
+     * Gives where the file is not type safe.
+     *
+     * @return every failure when diagnostics are enabled, the first failure when
+     *     failing fast, the unsupported constructs when the file failed because of
+     *     them, and otherwise an empty list
+     */
+    public List<Diagnostic> getDiagnostics() {
+      return diagnostics;
+    }
+  }
+
+  private final ForkJoinPool pool;
+  private final TypeCheckCache cache;
+  private final SourceParser parser = new SourceParser();
+  private IMetricsListener metrics = null;
+  private boolean isFailFast = false;
+  private boolean isDiagnosticsEnabled = false;
+
+  public BatchTypeChecker() {
+    this(ForkJoinPool.commonPool());
+  }
+
+  /**
+   * Creates a batch checker that checks files on the given pool.
+   *
+   * @param pool the pool on which to check files
+   */
+  public BatchTypeChecker(ForkJoinPool pool) {
+    this(pool, null);
+  }
+
+  /**
+   * Creates a batch checker that reuses verdicts and proofs from a cache.
+   *
+   * <p>A file whose source is unchanged is not parsed or checked. Otherwise only
+   * the methods whose source or class declarations changed are checked. Proofs
+   * are cached only for checks that ask for them.
+   *
+   * @param pool the pool on which to check files
+   * @param cache the verdicts from earlier checks or null for no cache
+   */
+  public BatchTypeChecker(ForkJoinPool pool, TypeCheckCache cache) {
+    this.pool = pool;
+    this.cache = cache;
+  }
+
+  /**
+   * Reports parsing and what the builders do to a listener.
+   *
+   * @param metrics the listener, which must accept calls from many threads, or
+   *     null to stop reporting
+   */
+  public void setMetricsListener(IMetricsListener metrics) {
+    this.metrics = metrics;
+    parser.setMetricsListener(metrics);
+  }
+
+  /**
+   * Stops checking a file at its first failing judgment and reports where it is.
+   *
+   * <p>The verdicts are the same, but a file that is not type safe is only
+   * checked up to its first error. The cache is not used when failing fast, since
+   * it does not hold where a file fails. Checks that ask for the proof still
+   * check the whole file and still use the cache.
+   *
+   * @param isFailFast true to stop at the first failure
+   */
+  public void setFailFast(boolean isFailFast) {
+    this.isFailFast = isFailFast;
+  }
+
+  /**
+   * Reports every failing judgment in a file with its position.
+   *
+   * <p>Each file is checked once and whole, keeping only the failures rather than
+   * the proof. This takes precedence over failing fast, and like it does not use
+   * the cache or apply to checks that ask for the proof.
+   *
+   * @param isDiagnosticsEnabled true to report every failure
+   */
+  public void setDiagnosticsEnabled(boolean isDiagnosticsEnabled) {
+    this.isDiagnosticsEnabled = isDiagnosticsEnabled;
+  }
+
+  /**
+   * Checks every Java file under a directory.
+   *
+   * @param directory the root of the source tree
+   * @return the results ordered by path
+   * @throws IOException if the directory cannot be walked
+   */
+  public List<Result> checkDirectory(Path directory) throws IOException {
+    return check(findJavaFiles(directory));
+  }
+
+  /**
+   * Lists every Java file under a directory.
+   *
+   * @param directory the root of the source tree
+   * @return the Java files ordered by path
+   * @throws IOException if the directory cannot be walked
+   */
+  public static List<Path> findJavaFiles(Path directory) throws IOException {
+    try (Stream<Path> paths = Files.walk(directory)) {
+      return paths
+          .filter(path -> Files.isRegularFile(path) && path.toString().endsWith(".java"))
+          .sorted()
+          .collect(Collectors.toList());
+    }
+  }
+
+  /**
+   * Checks each file in the list.
+   *
+   * <p>Without a cache the files are split into batches, one per task on the
+   * pool, and each batch is parsed with one call to
+   * {@link SourceParser#parseAll(List)} before its units are checked. With a cache
+   * each file is read first so an unchanged file is not parsed at all.
+   *
+   * @param files the Java source files to check
+   * @return the results in the order of files
+   */
+  public List<Result> check(List<Path> files) {
+    List<ForkJoinTask<List<Result>>> tasks = new ArrayList<>();
+    int batchSize = cache == null ? getBatchSize(files.size()) : 1;
+    for (int from = 0; from < files.size(); from += batchSize) {
+      List<Path> batch = files.subList(from, Math.min(from + batchSize, files.size()));
+      tasks.add(pool.submit(() -> cache == null
+          ? checkBatch(batch) : Collections.singletonList(check(batch.get(0)))));
+    }
+
+    List<Result> results = new ArrayList<>(files.size());
+    for (ForkJoinTask<List<Result>> task : tasks) {
+      results.addAll(task.join());
+    }
+    return results;
+  }
+
+  /**
+   * Checks a single file.
+   *
+   * @param file the Java source file to check
+   * @return the result for the file
+   */
+  public Result check(Path file) {
+    return check(file, false);
+  }
+
+  /**
+   * Checks a single file, optionally keeping the proof.
+   *
+   * <p>A proof is taken from the cache when the file is unchanged since it was
+   * cached, and is cached after the file is checked otherwise.
+   *
+   * @param file the Java source file to check
+   * @param isProofEnabled true to give the proof in the result
+   * @return the result for the file
+   */
+  public Result check(Path file, boolean isProofEnabled) {
+    return check(file, (String) null, isProofEnabled);
+  }
+
+  /**
+   * Checks a compilation unit that is already parsed.
+   *
+   * <p>The unit is given to the symbol table and the type checker as is, so a
+   * caller that parsed it for another reason does not parse it again. The cache
+   * is not used, since it is keyed by source text.
+   *
+   * @param file the file the unit was parsed from, or null if none
+   * @param compilationUnit the parsed unit
+   * @param isProofEnabled true to give the proof in the result
+   * @return the result for the unit
+   */
+  public Result check(Path file, CompilationUnit compilationUnit, boolean isProofEnabled) {
+    return check(file, compilationUnit, null, isProofEnabled, System.nanoTime());
+  }
+
+  private Result check(Path file, String source, boolean isProofEnabled) {
+    long start = System.nanoTime();
+    try {
+      if (source == null) {
+        source = new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+      }
+      String key = isCached(isProofEnabled) ? TypeCheckCache.getKey(source) : null;
+      if (key != null && isProofEnabled) {
+        ProofTree cachedProofTree = cache.getProof(key);
+        if (cachedProofTree != null) {
+          return new Result(file, getVerdict(cachedProofTree.isTypeSafe()),
+              System.nanoTime() - start, null, cachedProofTree);
+        }
+      } else if (key != null) {
+        Boolean isCachedTypeSafe = cache.getVerdict(key);
+        if (isCachedTypeSafe != null) {
+          return new Result(file, getVerdict(isCachedTypeSafe), System.nanoTime() - start,
+              null, null);
+        }
+      }
+      return check(file, parse(source), source, isProofEnabled, start);
+    } catch (IOException | RuntimeException e) {
+      log.debug("failed to check {}", file, e);
+      return new Result(file, Verdict.FAILED, System.nanoTime() - start, e.getMessage(), null);
+    }
+  }
+
+  /**
+   * Checks a parsed unit, using the cache only when the source is given.
+   */
+  private Result check(Path file, CompilationUnit compilationUnit, String source,
+      boolean isProofEnabled, long start) {
+    try {
+      List<Diagnostic> problems = new ArrayList<>();
+      ISymbolTable symbolTable =
+          createSymbolTableBuilder().getValidatedSymbolTable(compilationUnit, problems);
+      if (!problems.isEmpty()) {
+        return new Result(file, Verdict.FAILED, System.nanoTime() - start,
+            problems.get(0).getMessage(), null, problems);
+      }
+      return checkTypes(file, symbolTable, compilationUnit, source, isProofEnabled, start);
+    } catch (RuntimeException e) {
+      log.debug("failed to check {}", file, e);
+      return new Result(file, Verdict.FAILED, System.nanoTime() - start, e.getMessage(), null);
+    }
+  }
+
+  /**
+   * Checks source text that is not in a file.
+   *
+   * @param source the text of a compilation unit
+   * @param isProofEnabled true to give the proof in the result
+   * @return the result, which has no path
+   */
+  public Result checkSource(String source, boolean isProofEnabled) {
+    return check(null, source, isProofEnabled);
+  }
+
+  /**
+   * Gives about two batches for each thread so threads that finish early can take
+   * another, with no batch larger than {@link #MAX_BATCH_SIZE}.
+   */
+  private int getBatchSize(int fileCount) {
+    int batchCount = pool.getParallelism() * 2;
+    return Math.max(1, Math.min(MAX_BATCH_SIZE, (fileCount + batchCount - 1) / batchCount));
+  }
+
+  private List<Result> checkBatch(List<Path> files) {
+    long start = System.nanoTime();
+    CompilationUnit[] compilationUnits = null;
+    try {
+      compilationUnits = parser.parseAll(files);
+    } catch (RuntimeException e) {
+      log.debug("failed to parse a batch of {} files", files.size(), e);
+      compilationUnits = new CompilationUnit[files.size()];
+    }
+    long parseNanos = (System.nanoTime() - start) / files.size();
+
+    List<Result> results = new ArrayList<>(files.size());
+    for (int i = 0; i < files.size(); ++i) {
+      if (compilationUnits[i] == null) {
+        results.add(check(files.get(i)));
+      } else {
+        results.add(check(files.get(i), compilationUnits[i], null, false,
+            System.nanoTime() - parseNanos));
+      }
+    }
+    return results;
+  }
+
+  /**
+   * Checks the files as one program so a class may refer to classes in other files.
+   *
+   * <p>Every file is parsed in parallel, its classes are added to one
+   * {@link GlobalSymbolTable} in the order of files, and then every file is
+   * checked in parallel against that table. A file may declare more than one
+   * class, but a class may be declared only once across the files: the first
+   * file to declare it keeps it and every later one fails. Each file is validated
+   * before its classes are added, so a file that cannot be read or parsed, or that
+   * has an unsupported construct, fails with its diagnostics and without its
+   * classes, and the other files are still checked. Failing fast and diagnostics
+   * apply as in {@link #check(Path)}. The cache and proofs are not used, since a
+   * verdict here depends on the other files.
+   *
+   * @param files the Java source files of the program
+   * @return the results in the order of files
+   */
+  public List<Result> checkProject(List<Path> files) {
+    GlobalSymbolTable globalSymbolTable = new GlobalSymbolTable();
+    CompilationUnit[] compilationUnits = new CompilationUnit[files.size()];
+    long[] elapsedNanos = new long[files.size()];
+    Result[] failures = new Result[files.size()];
+    List<ForkJoinTask<?>> tasks = new ArrayList<>(files.size());
+    for (int i = 0; i < files.size(); ++i) {
+      int index = i;
+      tasks.add(pool.submit(() -> {
+        long start = System.nanoTime();
+        Path file = files.get(index);
+        try {
+          String source = new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+          compilationUnits[index] = parse(source);
+        } catch (IOException | RuntimeException e) {
+          log.debug("failed to parse {}", file, e);
+          failures[index] = new Result(file, Verdict.FAILED, System.nanoTime() - start,
+              e.getMessage() == null ? e.toString() : e.getMessage(), null);
+        }
+        elapsedNanos[index] = System.nanoTime() - start;
+      }));
+    }
+    for (ForkJoinTask<?> task : tasks) {
+      task.join();
+    }
+
+    // in order, so which file keeps a class declared twice does not depend on timing
+    for (int i = 0; i < files.size(); ++i) {
+      if (compilationUnits[i] == null) {
+        continue;
+      }
+      long start = System.nanoTime();
+      List<Diagnostic> problems = new ArrayList<>();
+      String message = null;
+      try {
+        createSymbolTableBuilder()
+            .addToGlobalSymbolTable(compilationUnits[i], globalSymbolTable, problems);
+      } catch (RuntimeException e) {
+        log.debug("failed to index {}", files.get(i), e);
+        message = e.getMessage() == null ? e.toString() : e.getMessage();
+      }
+      elapsedNanos[i] += System.nanoTime() - start;
+      if (!problems.isEmpty()) {
+        failures[i] = new Result(files.get(i), Verdict.FAILED, elapsedNanos[i],
+            problems.get(0).getMessage(), null, problems);
+      } else if (message != null) {
+        failures[i] = new Result(files.get(i), Verdict.FAILED, elapsedNanos[i], message, null);
+      }
+    }
+
+    List<ForkJoinTask<Result>> checks = new ArrayList<>(files.size());
+    for (int i = 0; i < files.size(); ++i) {
+      int index = i;
+      checks.add(pool.submit(() -> failures[index] != null ? failures[index]
+          : checkAgainst(globalSymbolTable, files.get(index), compilationUnits[index],
+              elapsedNanos[index])));
+    }
+    List<Result> results = new ArrayList<>(files.size());
+    for (ForkJoinTask<Result> check : checks) {
+      results.add(check.join());
+    }
+    return results;
+  }
+
+  private Result checkAgainst(GlobalSymbolTable globalSymbolTable, Path file,
+      CompilationUnit compilationUnit, long indexNanos) {
+    // counted from when the file was read, so the time includes parsing and indexing
+    long start = System.nanoTime() - indexNanos;
+    try {
+      return checkTypes(file, globalSymbolTable.getSymbolTable(), compilationUnit, null, false,
+          start);
+    } catch (RuntimeException e) {
+      log.debug("failed to check {}", file, e);
+      return new Result(file, Verdict.FAILED, System.nanoTime() - start, e.getMessage(), null);
+    }
+  }
+
+  /**
+   * Gives the verdict for a unit whose classes are in the symbol table, keeping the
+   * proof, the diagnostics, or the first failure as asked.
+   */
+  private Result checkTypes(Path file, ISymbolTable symbolTable,
+      CompilationUnit compilationUnit, String source, boolean isProofEnabled, long start) {
+    TypeCheckBuilder typeCheckBuilder = createTypeCheckBuilder();
+    ProofTree proofTree = null;
+    List<Diagnostic> diagnostics = Collections.emptyList();
+    boolean isTypeSafe = false;
+    if (isProofEnabled) {
+      proofTree = typeCheckBuilder.getProofTree(symbolTable, compilationUnit);
+      isTypeSafe = proofTree.isTypeSafe();
+      if (source != null && isCached(isProofEnabled)) {
+        cache.putProof(TypeCheckCache.getKey(source), proofTree);
+      }
+    } else if (isDiagnosticsEnabled) {
+      diagnostics = typeCheckBuilder.getDiagnostics(symbolTable, compilationUnit);
+      isTypeSafe = diagnostics.isEmpty();
+    } else if (isFailFast) {
+      Diagnostic failure = typeCheckBuilder.getFirstFailure(symbolTable, compilationUnit);
+      isTypeSafe = failure == null;
+      if (!isTypeSafe) {
+        diagnostics = Collections.singletonList(failure);
+      }
+    } else if (source != null && isCached(isProofEnabled)) {
+      isTypeSafe = checkWithCache(source, compilationUnit, symbolTable, typeCheckBuilder);
+      cache.putVerdict(TypeCheckCache.getKey(source), isTypeSafe);
+    } else {
+      isTypeSafe = typeCheckBuilder.isTypeSafe(symbolTable, compilationUnit);
+    }
+    return new Result(file, getVerdict(isTypeSafe), System.nanoTime() - start, null,
+        proofTree, diagnostics);
+  }
+
+  /**
+   * Returns true if the cache applies, which it does to every check that asks for
+   * the proof, since those check the whole file, and otherwise only when neither
+   * failing fast nor diagnostics are asked for.
+   */
+  private boolean isCached(boolean isProofEnabled) {
+    return cache != null && (isProofEnabled || !isDiagnosticsEnabled && !isFailFast);
+  }
+
+  private static Verdict getVerdict(boolean isTypeSafe) {
+    return isTypeSafe ? Verdict.TYPE_SAFE : Verdict.NOT_TYPE_SAFE;
+  }
+
+  private SymbolTableBuilder createSymbolTableBuilder() {
+    SymbolTableBuilder symbolTableBuilder = new SymbolTableBuilder();
+    symbolTableBuilder.setMetricsListener(metrics);
+    return symbolTableBuilder;
+  }
+
+  private TypeCheckBuilder createTypeCheckBuilder() {
+    TypeCheckBuilder typeCheckBuilder = new TypeCheckBuilder();
+    typeCheckBuilder.setMetricsListener(metrics);
+    return typeCheckBuilder;
+  }
+
+  /**
+   * Checks only the methods whose verdicts are not in the cache.
+   */
+  private boolean checkWithCache(String source, CompilationUnit compilationUnit,
+      ISymbolTable symbolTable, TypeCheckBuilder typeCheckBuilder) {
+    boolean isTypeSafe = true;
+    String hierarchySignature = getHierarchySignature(compilationUnit);
+    for (Object declaration : compilationUnit.types()) {
+      TypeDeclaration type = (TypeDeclaration) declaration;
+      String classSignature = getClassSignature(type) + hierarchySignature;
+      for (MethodDeclaration method : type.getMethods()) {
+        String methodSource =
+            source.substring(method.getStartPosition(), getEndPosition(method));
+        String methodKey = TypeCheckCache.getKey(classSignature, methodSource);
+        Boolean isMethodTypeSafe = cache.getVerdict(methodKey);
+        if (isMethodTypeSafe == null) {
+          isMethodTypeSafe = typeCheckBuilder.isMethodTypeSafe(symbolTable, method);
+          cache.putVerdict(methodKey, isMethodTypeSafe);
+        }
+        isTypeSafe = isTypeSafe && isMethodTypeSafe;
+      }
+    }
+    return isTypeSafe;
+  }
+
+  /**
+   * Gives the declarations a method body may depend on: the class name, the fields,
+   * and the method signatures.
+   * 
+   * <p>The signature is built from the declared names and types rather than the
+   * debug text of the AST, so it does not change with the JDT version.
+   * 
+   * @requires the symbol table for type has been validated
+   */
+  private static String getClassSignature(TypeDeclaration type) {
+    StringBuilder signature = new StringBuilder("class ")
+        .append(AstNodePropertiesUtils.getName(type));
+    for (FieldDeclaration field : type.getFields()) {
+      signature.append("\nfield ").append(TypeCheckUtils.getType(field)).append(' ')
+          .append(AstNodePropertiesUtils.getName(field));
+    }
+    for (MethodDeclaration method : type.getMethods()) {
+      signature.append("\nmethod ").append(TypeCheckUtils.getType(method)).append(' ')
+          .append(AstNodePropertiesUtils.getName(method)).append('(');
+      String separator = "";
+      for (Object parameter : method.parameters()) {
+        signature.append(separator)
+            .append(TypeCheckUtils.getType((SingleVariableDeclaration) parameter));
+        separator = ",";
+      }
+      signature.append(')');
+    }
+    return signature.toString();
+  }
+
+  /**
+   * Gives the superclass of every class in a compilation unit, since a method body
+   * may assign an object of one class to a variable of any superclass.
+   */
+  private static String getHierarchySignature(CompilationUnit compilationUnit) {
+    StringBuilder signature = new StringBuilder();
+    for (Object declaration : compilationUnit.types()) {
+      TypeDeclaration type = (TypeDeclaration) declaration;
+      String superclass = TypeCheckUtils.getSuperclass(type);
+      if (superclass != null) {
+        signature.append('\n').append(AstNodePropertiesUtils.getName(type))
+            .append(" extends ").append(superclass);
+      }
+    }
+    return signature.toString();
+  }
+
+  private static int getEndPosition(ASTNode node) {
+    return node.getStartPosition() + node.getLength();
+  }
+
+  /**
+   * Parses source text with this checker's compiler options.
+   *
+   * @param source the text of a compilation unit
+   * @return the parsed compilation unit
+   */
+  public CompilationUnit parse(String source) {
+    return parser.parse(source);
+  }
+
+  /**
+   * Writes one line per file, and one per diagnostic under it, followed by the
+   * totals.
+   *
+   * @param results the results to summarize
+   * @param out where to write the summary
+   */
+  public static void writeSummary(List<Result> results, PrintStream out) {
+    int[] counts = new int[Verdict.values().length];
+    long totalNanos = 0;
+    for (Result result : results) {
+      counts[result.getVerdict().ordinal()]++;
+      totalNanos += result.getElapsedNanos();
+      out.printf("%s\t%s\t%.3f ms%s%n", result.getVerdict(), result.getPath(),
+          result.getElapsedNanos() / 1e6,
+          result.getMessage() == null ? "" : "\t" + result.getMessage());
+      for (Diagnostic diagnostic : result.getDiagnostics()) {
+        out.printf("\t%s:%s%n", result.getPath(), diagnostic);
+      }
+    }
+    out.printf("%d files: %d type safe, %d not type safe, %d failed, %.3f ms checking%n",
+        results.size(), counts[Verdict.TYPE_SAFE.ordinal()],
+        counts[Verdict.NOT_TYPE_SAFE.ordinal()], counts[Verdict.FAILED.ordinal()],
+        totalNanos / 1e6);
+  }
+
+  /**
+   * Checks the directories and files named on the command line.
+   *
+   * @param args directories or Java source files, optionally preceded by
+   *     "--cache" and the cache directory and by "--metrics" and the file to
+   *     write the metrics to as JSON, by "--project" to check the files as one
+   *     program, by "--fail-fast" to stop each file at its first failure, and by
+   *     "--diagnostics" to list every failure
+   * @throws IOException if a directory cannot be walked
+   */
+  public static void main(String[] args) throws IOException {
+    Path cacheDirectory = null;
+    Path metricsFile = null;
+    boolean isProject = false;
+    boolean isFailFast = false;
+    boolean isDiagnosticsEnabled = false;
+    List<Path> files = new ArrayList<>();
+    for (int i = 0; i < args.length; ++i) {
+      if (args[i].equals("--cache") && i + 1 < args.length) {
+        cacheDirectory = Paths.get(args[++i]);
+        continue;
+      } else if (args[i].equals("--metrics") && i + 1 < args.length) {
+        metricsFile = Paths.get(args[++i]);
+        continue;
+      } else if (args[i].equals("--project")) {
+        isProject = true;
+        continue;
+      } else if (args[i].equals("--fail-fast")) {
+        isFailFast = true;
+        continue;
+      } else if (args[i].equals("--diagnostics")) {
+        isDiagnosticsEnabled = true;
+        continue;
+      }
+      Path path = Paths.get(args[i]);
+      if (Files.isDirectory(path)) {
+        files.addAll(findJavaFiles(path));
+      } else {
+        files.add(path);
+      }
+    }
+
+    CheckMetrics metrics = metricsFile == null ? null : new CheckMetrics();
+    if (cacheDirectory == null) {
+      BatchTypeChecker checker = new BatchTypeChecker();
+      checker.setMetricsListener(metrics);
+      checker.setFailFast(isFailFast);
+      checker.setDiagnosticsEnabled(isDiagnosticsEnabled);
+      writeSummary(isProject ? checker.checkProject(files) : checker.check(files), System.out);
+    } else {
+      try (TypeCheckCache cache = new TypeCheckCache(cacheDirectory, DEFAULT_CACHE_CAPACITY)) {
+        BatchTypeChecker checker = new BatchTypeChecker(ForkJoinPool.commonPool(), cache);
+        checker.setMetricsListener(metrics);
+        checker.setFailFast(isFailFast);
+        checker.setDiagnosticsEnabled(isDiagnosticsEnabled);
+        writeSummary(isProject ? checker.checkProject(files) : checker.check(files),
+            System.out);
+      }
+    }
+    if (metrics != null) {
+      metrics.writeJson(metricsFile);
+    }
+  }
+}
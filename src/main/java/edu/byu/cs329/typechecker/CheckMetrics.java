@@ -0,0 +1,146 @@
+package edu.byu.cs329.typechecker;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import org.eclipse.jdt.core.dom.ASTNode;
+
+/**
+ * Metrics listener that totals what it receives.
+ *
+ * <p>Totals are kept in adders so many checks may report at once. Reading the
+ * totals while checks are running gives a consistent value for each total but
+ * not across totals.
+ */
+public class CheckMetrics implements IMetricsListener {
+  private static final int NODE_TYPES = 128;
+
+  private final LongAdder[] phaseNanos = createAdders(Phase.values().length);
+  private final LongAdder[] phaseCounts = createAdders(Phase.values().length);
+  private final LongAdder[] nodeCounts = createAdders(NODE_TYPES);
+  private final LongAdder lookups = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+  private final LongAccumulator maxScopeDepth = new LongAccumulator(Math::max, 0);
+
+  private static LongAdder[] createAdders(int size) {
+    LongAdder[] adders = new LongAdder[size];
+    for (int i = 0; i < size; ++i) {
+      adders[i] = new LongAdder();
+    }
+    return adders;
+  }
+
+  @Override
+  public void phaseCompleted(Phase phase, long elapsedNanos) {
+    phaseNanos[phase.ordinal()].add(elapsedNanos);
+    phaseCounts[phase.ordinal()].increment();
+  }
+
+  @Override
+  public void nodeVisited(int nodeType) {
+    if (nodeType >= 0 && nodeType < NODE_TYPES) {
+      nodeCounts[nodeType].increment();
+    }
+  }
+
+  @Override
+  public void lookup(boolean isFound) {
+    lookups.increment();
+    if (!isFound) {
+      misses.increment();
+    }
+  }
+
+  @Override
+  public void scopeEntered(int depth) {
+    maxScopeDepth.accumulate(depth);
+  }
+
+  public long getPhaseNanos(Phase phase) {
+    return phaseNanos[phase.ordinal()].sum();
+  }
+
+  public long getPhaseCount(Phase phase) {
+    return phaseCounts[phase.ordinal()].sum();
+  }
+
+  /**
+   * Gives how many times nodes of a type were visited.
+   *
+   * @param nodeType the type of node as in {@link ASTNode#getNodeType()}
+   * @return the number of visits
+   */
+  public long getNodeCount(int nodeType) {
+    return nodeType >= 0 && nodeType < NODE_TYPES ? nodeCounts[nodeType].sum() : 0;
+  }
+
+  public long getLookups() {
+    return lookups.sum();
+  }
+
+  public long getMisses() {
+    return misses.sum();
+  }
+
+  public long getMaxScopeDepth() {
+    return maxScopeDepth.get();
+  }
+
+  /**
+   * Gives the totals as a JSON object.
+   *
+   * <p>Node counts are keyed by the simple name of the node class and only node
+   * types that were visited are included.
+   *
+   * @return the JSON text
+   */
+  public String toJson() {
+    StringBuilder json = new StringBuilder("{\n  \"phases\": {");
+    Phase[] phases = Phase.values();
+    for (int i = 0; i < phases.length; ++i) {
+      json.append(i == 0 ? "\n" : ",\n").append("    \"").append(phases[i]).append("\": {")
+          .append("\"count\": ").append(getPhaseCount(phases[i]))
+          .append(", \"nanos\": ").append(getPhaseNanos(phases[i])).append('}');
+    }
+    json.append("\n  },\n  \"nodes\": {");
+    String separator = "\n";
+    for (int nodeType = 0; nodeType < NODE_TYPES; ++nodeType) {
+      long count = getNodeCount(nodeType);
+      if (count == 0) {
+        continue;
+      }
+      json.append(separator).append("    \"").append(getNodeName(nodeType)).append("\": ")
+          .append(count);
+      separator = ",\n";
+    }
+    json.append("\n  },\n")
+        .append("  \"lookups\": ").append(getLookups()).append(",\n")
+        .append("  \"misses\": ").append(getMisses()).append(",\n")
+        .append("  \"maxScopeDepth\": ").append(getMaxScopeDepth()).append("\n}\n");
+    return json.toString();
+  }
+
+  /**
+   * Writes the totals as JSON.
+   *
+   * @param file where to write
+   * @throws IOException if the file cannot be written
+   */
+  public void writeJson(Path file) throws IOException {
+    try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+      writer.write(toJson());
+    }
+  }
+
+  private static String getNodeName(int nodeType) {
+    try {
+      return ASTNode.nodeClassForType(nodeType).getSimpleName();
+    } catch (IllegalArgumentException e) {
+      return Integer.toString(nodeType);
+    }
+  }
+}
@@ -0,0 +1,103 @@
+package edu.byu.cs329.typechecker;
+
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The fields and methods declared by one class, keyed by their simple names.
+ *
+ * <p>Built once by {@link SymbolTableBuilder} so member lookups take the class
+ * name and member name as they appear in the AST rather than a "class.member"
+ * string built for each lookup.
+ */
+class ClassMembers {
+  private final String name;
+  private String superclass = null;
+  private final Map<String, TypeId> fieldTypes = new HashMap<>();
+  private final Map<String, TypeId> methodTypes = new HashMap<>();
+  private final Map<String, List<SimpleImmutableEntry<String, TypeId>>> parameterTypes =
+      new HashMap<>();
+
+  ClassMembers(String name) {
+    this.name = name;
+  }
+
+  String getName() {
+    return name;
+  }
+
+  /**
+   * Gives the class this class extends.
+   *
+   * @return the simple name of the superclass or null if there is no extends clause
+   */
+  String getSuperclass() {
+    return superclass;
+  }
+
+  void setSuperclass(String superclass) {
+    this.superclass = superclass;
+  }
+
+  void addField(String fieldName, TypeId type) {
+    fieldTypes.put(fieldName, type);
+  }
+
+  void addMethod(String methodName, TypeId type,
+      List<SimpleImmutableEntry<String, TypeId>> parameters) {
+    methodTypes.put(methodName, type);
+    parameterTypes.put(methodName, parameters);
+  }
+
+  /**
+   * Gives the type of a field.
+   *
+   * @param fieldName the simple name of the field
+   * @return the declared type or null if there is no such field
+   */
+  TypeId getFieldType(String fieldName) {
+    return fieldTypes.get(fieldName);
+  }
+
+  static TypeId getFieldType(Map<String, ClassMembers> classMap, String className,
+      String fieldName) {
+    ClassMembers members = classMap.get(className);
+    TypeId type = members == null ? null : members.getFieldType(fieldName);
+    return type == null ? TypeId.ERROR : type;
+  }
+
+  /**
+   * Gives the return type of a method.
+   *
+   * @param methodName the simple name of the method
+   * @return the declared type or null if there is no such method
+   */
+  TypeId getMethodType(String methodName) {
+    return methodTypes.get(methodName);
+  }
+
+  static TypeId getMethodType(Map<String, ClassMembers> classMap, String className,
+      String methodName) {
+    ClassMembers members = classMap.get(className);
+    TypeId type = members == null ? null : members.getMethodType(methodName);
+    return type == null ? TypeId.ERROR : type;
+  }
+
+  /**
+   * Gives the parameters of a method.
+   *
+   * @param methodName the simple name of the method
+   * @return the parameter names and types or null if there is no such method
+   */
+  List<SimpleImmutableEntry<String, TypeId>> getParameterTypes(String methodName) {
+    return parameterTypes.get(methodName);
+  }
+
+  static List<SimpleImmutableEntry<String, TypeId>> getParameterTypes(
+      Map<String, ClassMembers> classMap, String className, String methodName) {
+    ClassMembers members = classMap.get(className);
+    return members == null ? null : members.getParameterTypes(methodName);
+  }
+}
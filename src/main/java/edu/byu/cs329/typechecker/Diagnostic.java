@@ -0,0 +1,93 @@
+package edu.byu.cs329.typechecker;
+
+import java.util.Objects;
+import org.eclipse.jdt.core.dom.ASTNode;
+import org.eclipse.jdt.core.dom.CompilationUnit;
+
+/**
+ * A problem found in a source file and where it is.
+ *
+ * <p>Diagnostics order by line, then column, then message.
+ */
+public class Diagnostic implements Comparable<Diagnostic> {
+  private final int line;
+  private final int column;
+  private final String message;
+
+  /**
+   * Creates a diagnostic at a position.
+   *
+   * @param line the line, starting at 1, or -1 if unknown
+   * @param column the column, starting at 1, or -1 if unknown
+   * @param message what is wrong, as in "int := boolean"
+   */
+  public Diagnostic(int line, int column, String message) {
+    this.line = line;
+    this.column = column;
+    this.message = message;
+  }
+
+  /**
+   * Creates a diagnostic at the start of a node.
+   *
+   * @param node the node that is wrong
+   * @param message what is wrong
+   * @return a diagnostic at the line and column of node if it is in a
+   *     compilation unit and at -1, -1 otherwise
+   */
+  public static Diagnostic of(ASTNode node, String message) {
+    ASTNode root = node.getRoot();
+    if (!(root instanceof CompilationUnit)) {
+      return new Diagnostic(-1, -1, message);
+    }
+    CompilationUnit compilationUnit = (CompilationUnit) root;
+    int position = node.getStartPosition();
+    int column = compilationUnit.getColumnNumber(position);
+    return new Diagnostic(compilationUnit.getLineNumber(position),
+        column < 0 ? -1 : column + 1, message);
+  }
+
+  public int getLine() {
+    return line;
+  }
+
+  public int getColumn() {
+    return column;
+  }
+
+  public String getMessage() {
+    return message;
+  }
+
+  @Override
+  public int compareTo(Diagnostic other) {
+    int difference = Integer.compare(line, other.line);
+    if (difference == 0) {
+      difference = Integer.compare(column, other.column);
+    }
+    if (difference == 0) {
+      difference = message.compareTo(other.message);
+    }
+    return difference;
+  }
+
+  @Override
+  public boolean equals(Object other) {
+    if (!(other instanceof Diagnostic)) {
+      return false;
+    }
+    Diagnostic diagnostic = (Diagnostic) other;
+    return line == diagnostic.line && column == diagnostic.column
+        && message.equals(diagnostic.message);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(line, column, message);
+  }
+
+  @Override
+  public String toString() {
+    return line + ":" + column + ": " + message;
+  }
+}
@@ -0,0 +1,187 @@
+package edu.byu.cs329.typechecker;
+
+import edu.byu.cs329.utils.ExceptionUtils;
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Symbol table that keeps locals in flat parallel arrays.
+ *
+ * <p>Each scope is a mark into the arrays: pushing a scope records the current
+ * size and popping truncates back to it, so no map is allocated per scope.
+ * The locals are also indexed by an open-addressed table of their positions, so
+ * a lookup is one probe sequence however many locals are live, and then one
+ * probe of the class-level map. Locals leave the index in the reverse of the
+ * order they entered it, so clearing their slots on a pop leaves every probe
+ * sequence of the remaining locals intact.
+ */
+class FlatSymbolTable implements ISymbolTable {
+  private static final int INITIAL_CAPACITY = 16;
+
+  private final Map<String, TypeId> typeMap;
+  private final Map<String, List<SimpleImmutableEntry<String, TypeId>>> parameterTypeMap;
+  private final Map<String, ClassMembers> classMap;
+  private final TypeHierarchy typeHierarchy;
+  private final TypeScope typeScope;
+
+  private String[] names = new String[INITIAL_CAPACITY];
+  private int[] hashes = new int[INITIAL_CAPACITY];
+  private TypeId[] types = new TypeId[INITIAL_CAPACITY];
+  private int[] slots = new int[INITIAL_CAPACITY];
+  private int size = 0;
+
+  // position of each local plus one by hash, with 0 for an empty slot
+  private int[] index = new int[INITIAL_CAPACITY * 2];
+
+  private int[] scopeMarks = new int[INITIAL_CAPACITY];
+  private int depth = 0;
+
+  /**
+   * Creates a symbol table over the class-level declarations.
+   *
+   * @param typeMap the types of the fields and methods as in "A.f"
+   * @param parameterTypeMap the parameter lists of the methods as in "A.m"
+   * @param classMap the members of each class by class name
+   * @param typeHierarchy the subclass relation over the classes
+   * @param typeScope the scope of every type in the maps
+   */
+  FlatSymbolTable(Map<String, TypeId> typeMap,
+      Map<String, List<SimpleImmutableEntry<String, TypeId>>> parameterTypeMap,
+      Map<String, ClassMembers> classMap, TypeHierarchy typeHierarchy, TypeScope typeScope) {
+    this.typeMap = typeMap;
+    this.parameterTypeMap = parameterTypeMap;
+    this.classMap = classMap;
+    this.typeHierarchy = typeHierarchy;
+    this.typeScope = typeScope;
+  }
+
+  @Override
+  public String getType(String name) {
+    return getTypeId(name).getName();
+  }
+
+  @Override
+  public TypeId getTypeId(String name) {
+    int hash = name.hashCode();
+    int mask = index.length - 1;
+    for (int slot = hash & mask; index[slot] != 0; slot = (slot + 1) & mask) {
+      int i = index[slot] - 1;
+      if (hashes[i] == hash && names[i].equals(name)) {
+        return types[i];
+      }
+    }
+    TypeId type = typeMap.get(name);
+    if (type == null) {
+      return TypeId.ERROR;
+    }
+    return type;
+  }
+
+  @Override
+  public List<SimpleImmutableEntry<String, String>> getParameterTypeList(String name) {
+    return SymbolTableBuilder.getTypeNameList(getParameterTypeIdList(name));
+  }
+
+  @Override
+  public List<SimpleImmutableEntry<String, TypeId>> getParameterTypeIdList(String name) {
+    return parameterTypeMap.get(name);
+  }
+
+  @Override
+  public List<SimpleImmutableEntry<String, TypeId>> getParameterTypeIdList(String className,
+      String methodName) {
+    return ClassMembers.getParameterTypes(classMap, className, methodName);
+  }
+
+  @Override
+  public TypeId getFieldTypeId(String className, String fieldName) {
+    return ClassMembers.getFieldType(classMap, className, fieldName);
+  }
+
+  @Override
+  public TypeId getMethodTypeId(String className, String methodName) {
+    return ClassMembers.getMethodType(classMap, className, methodName);
+  }
+
+  @Override
+  public TypeScope getTypeScope() {
+    return typeScope;
+  }
+
+  @Override
+  public TypeHierarchy getTypeHierarchy() {
+    return typeHierarchy;
+  }
+
+  @Override
+  public void pushScope() {
+    if (depth == scopeMarks.length) {
+      scopeMarks = Arrays.copyOf(scopeMarks, depth * 2);
+    }
+    scopeMarks[depth++] = size;
+  }
+
+  @Override
+  public void popScope() {
+    if (depth == 0) {
+      ExceptionUtils.throwRuntimeException("no local scope to pop");
+    }
+    int mark = scopeMarks[--depth];
+    for (int i = size - 1; i >= mark; --i) {
+      index[slots[i]] = 0;
+    }
+    Arrays.fill(names, mark, size, null);
+    Arrays.fill(types, mark, size, null);
+    size = mark;
+  }
+
+  @Override
+  public void addLocal(String name, String type) {
+    addLocal(name, typeScope.of(type));
+  }
+
+  @Override
+  public void addLocal(String name, TypeId type) {
+    TypeId existingType = getTypeId(name);
+    if (!TypeCheckTypes.isError(existingType)) {
+      ExceptionUtils.throwRuntimeException(
+          name + " already exists in symbol table with type " + existingType);
+    }
+
+    if (size == names.length) {
+      names = Arrays.copyOf(names, size * 2);
+      hashes = Arrays.copyOf(hashes, size * 2);
+      types = Arrays.copyOf(types, size * 2);
+      slots = Arrays.copyOf(slots, size * 2);
+    }
+    names[size] = name;
+    hashes[size] = name.hashCode();
+    types[size] = type;
+    ++size;
+    if (size * 2 > index.length) {
+      index = new int[index.length * 2];
+      for (int i = 0; i < size; ++i) {
+        addToIndex(i);
+      }
+    } else {
+      addToIndex(size - 1);
+    }
+  }
+
+  private void addToIndex(int i) {
+    int mask = index.length - 1;
+    int slot = hashes[i] & mask;
+    while (index[slot] != 0) {
+      slot = (slot + 1) & mask;
+    }
+    index[slot] = i + 1;
+    slots[i] = slot;
+  }
+
+  @Override
+  public ISymbolTable forkClassScope() {
+    return new FlatSymbolTable(typeMap, parameterTypeMap, classMap, typeHierarchy, typeScope);
+  }
+}
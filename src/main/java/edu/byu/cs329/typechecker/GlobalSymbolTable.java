@@ -0,0 +1,129 @@
+package edu.byu.cs329.typechecker;
+
+import edu.byu.cs329.utils.ExceptionUtils;
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * The classes of many compilation units in one table.
+ *
+ * <p>Compilation units are added with
+ * {@link SymbolTableBuilder#addToGlobalSymbolTable(org.eclipse.jdt.core.dom.ASTNode,
+ * GlobalSymbolTable)}, which may be called from many threads at once. Each class
+ * is indexed once, and every symbol table from {@link #getSymbolTable()} reads
+ * the shared index with its own local scopes, so a checker for one file sees the
+ * members of every class.
+ *
+ * <p>No class in the table is its own superclass: a compilation unit whose
+ * classes would close a cycle with those already added is not added.
+ */
+public class GlobalSymbolTable {
+  private final Map<String, TypeId> typeMap = new ConcurrentHashMap<>();
+  private final Map<String, List<SimpleImmutableEntry<String, TypeId>>> parameterTypeMap =
+      new ConcurrentHashMap<>();
+  private final Map<String, ClassMembers> classMap = new ConcurrentHashMap<>();
+  private final TypeScope typeScope = new TypeScope();
+  private volatile TypeHierarchy typeHierarchy = null;
+
+  /**
+   * Returns true if a class has been added.
+   *
+   * @param className the class as in "A"
+   * @return true iff the class is in the table
+   */
+  public boolean containsClass(String className) {
+    return classMap.containsKey(className);
+  }
+
+  public int getClassCount() {
+    return classMap.size();
+  }
+
+  /**
+   * Creates a symbol table over every class added so far and any added later.
+   *
+   * <p>Each caller gets its own local scopes, so each thread checking a file
+   * should have its own table. The table has the hierarchy of the classes added
+   * before it was created.
+   *
+   * @return a symbol table with no locals
+   */
+  public ISymbolTable getSymbolTable() {
+    return new FlatSymbolTable(typeMap, parameterTypeMap, classMap, getTypeHierarchy(),
+        typeScope);
+  }
+
+  /**
+   * Gives the scope in which the types of every class in the table are interned.
+   *
+   * @return the scope shared by every symbol table from {@link #getSymbolTable()}
+   */
+  public TypeScope getTypeScope() {
+    return typeScope;
+  }
+
+  /**
+   * Gives the subclass relation over every class added so far.
+   *
+   * <p>The hierarchy is built on the first call after classes are added and
+   * shared until more are added. Cycles are rejected as classes are added, so
+   * building it cannot fail.
+   *
+   * @return the hierarchy
+   */
+  public TypeHierarchy getTypeHierarchy() {
+    TypeHierarchy hierarchy = typeHierarchy;
+    if (hierarchy == null) {
+      synchronized (this) {
+        hierarchy = typeHierarchy;
+        if (hierarchy == null) {
+          hierarchy = TypeHierarchy.of(classMap, typeScope);
+          typeHierarchy = hierarchy;
+        }
+      }
+    }
+    return hierarchy;
+  }
+
+  /**
+   * Adds the classes from one compilation unit.
+   *
+   * <p>The classes are checked against those already in the table before any of
+   * them is published, so a reader never sees a class that is then rejected. The
+   * table had no cycle before, so a new cycle goes through one of the added
+   * classes and only those are checked.
+   *
+   * @requires no class in classes is in this table
+   * @requires no class in classes closes a cycle of superclasses
+   *
+   * @param classes the members of each class by class name
+   * @param classTypeMap the types of the fields and methods as in "A.f"
+   * @param classParameterTypeMap the parameter lists of the methods as in "A.m"
+   */
+  synchronized void addClasses(Map<String, ClassMembers> classes,
+      Map<String, TypeId> classTypeMap,
+      Map<String, List<SimpleImmutableEntry<String, TypeId>>> classParameterTypeMap) {
+    for (String className : classes.keySet()) {
+      if (classMap.containsKey(className)) {
+        ExceptionUtils.throwRuntimeException("class " + className + " is already declared");
+      }
+    }
+    Function<String, ClassMembers> lookup = className -> {
+      ClassMembers members = classes.get(className);
+      return members == null ? classMap.get(className) : members;
+    };
+    for (String className : classes.keySet()) {
+      if (TypeHierarchy.isCyclic(lookup, classMap.size() + classes.size(), className)) {
+        ExceptionUtils.throwRuntimeException("cyclic inheritance involving " + className);
+      }
+    }
+    // the members before the classes, so a reader that finds a class finds its members
+    typeMap.putAll(classTypeMap);
+    parameterTypeMap.putAll(classParameterTypeMap);
+    classMap.putAll(classes);
+    typeHierarchy = null;
+  }
+}
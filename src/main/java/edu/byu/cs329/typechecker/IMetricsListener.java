@@ -0,0 +1,61 @@
+package edu.byu.cs329.typechecker;
+
+/**
+ * Receives measurements from the checker as it runs.
+ *
+ * <p>Builders only call a listener that has been set, so checking without one
+ * costs nothing beyond a null test. A listener set on a builder that checks in
+ * parallel is called from many threads at once.
+ */
+public interface IMetricsListener {
+
+  /**
+   * The parts of a check that are timed.
+   *
+   * <p>The proof is built in the same traversal as the verdict, so a traversal
+   * that builds a proof is reported as {@link #PROOF_ASSEMBLY} and one that does
+   * not as {@link #TYPE_CHECK}; the difference between the two over the same
+   * input is the cost of the proof.
+   */
+  enum Phase {
+    PARSE, SYMBOL_TABLE, TYPE_CHECK, PROOF_ASSEMBLY
+  }
+
+  /**
+   * Called when a phase finishes.
+   *
+   * @param phase the phase
+   * @param elapsedNanos how long the phase took
+   */
+  default void phaseCompleted(Phase phase, long elapsedNanos) {
+
+  }
+
+  /**
+   * Called when a visitor reaches a node.
+   *
+   * @param nodeType the type of the node as in
+   *     {@link org.eclipse.jdt.core.dom.ASTNode#getNodeType()}
+   */
+  default void nodeVisited(int nodeType) {
+
+  }
+
+  /**
+   * Called when the type checker looks up a name in the symbol table.
+   *
+   * @param isFound false if the name is not declared
+   */
+  default void lookup(boolean isFound) {
+
+  }
+
+  /**
+   * Called when the type checker enters a local scope.
+   *
+   * @param depth the number of local scopes now open
+   */
+  default void scopeEntered(int depth) {
+
+  }
+}
@@ -1,6 +1,7 @@
 package edu.byu.cs329.typechecker;
 
 import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.ArrayList;
 import java.util.List;
 
 public interface ISymbolTable {
@@ -23,6 +24,18 @@ public interface ISymbolTable {
    */
   public String getType(String name);
 
+  /**
+   * Gives the interned type associated with a name.
+   * 
+   * @ensures getTypeId(name).getName().equals(getType(name))
+   * 
+   * @param name as in {@link #getType(String)}
+   * @return associated interned type for name
+   */
+  public default TypeId getTypeId(String name) {
+    return getTypeScope().of(getType(name));
+  }
+
   /**
    * Gives the parameters and types associated with the named method.
    * 
@@ -30,7 +43,88 @@ public interface ISymbolTable {
    * @return the type list for associated parameter names
    */
   public List<SimpleImmutableEntry<String, String>> getParameterTypeList(String name);
+
+  /**
+   * Gives the parameters and interned types associated with the named method.
+   * 
+   * @param name a method reference as "class"."method" as in "A.m",
+   * @return the interned type list for associated parameter names
+   */
+  public default List<SimpleImmutableEntry<String, TypeId>> getParameterTypeIdList(String name) {
+    List<SimpleImmutableEntry<String, String>> typeList = getParameterTypeList(name);
+    if (typeList == null) {
+      return null;
+    }
+    List<SimpleImmutableEntry<String, TypeId>> typeIdList = new ArrayList<>(typeList.size());
+    for (SimpleImmutableEntry<String, String> entry : typeList) {
+      TypeId type = getTypeScope().of(entry.getValue());
+      typeIdList.add(new SimpleImmutableEntry<>(entry.getKey(), type));
+    }
+    return typeIdList;
+  }
+
+  /**
+   * Gives the parameters and interned types of a method.
+   * 
+   * @param className the class declaring the method as in "A"
+   * @param methodName the method as in "m"
+   * @return the interned type list for associated parameter names or null if
+   *     there is no such method
+   */
+  public default List<SimpleImmutableEntry<String, TypeId>> getParameterTypeIdList(
+      String className, String methodName) {
+    return getParameterTypeIdList(TypeCheckUtils.buildName(className, methodName));
+  }
   
+  /**
+   * Gives the interned type of a field.
+   * 
+   * @ensures getFieldTypeId(c, f) == getTypeId(c + "." + f)
+   * 
+   * @param className the class declaring the field as in "A"
+   * @param fieldName the field as in "f"
+   * @return the interned type of the field or ERROR if there is no such field
+   */
+  public default TypeId getFieldTypeId(String className, String fieldName) {
+    return getTypeId(TypeCheckUtils.buildName(className, fieldName));
+  }
+
+  /**
+   * Gives the interned return type of a method.
+   * 
+   * @ensures getMethodTypeId(c, m) == getTypeId(c + "." + m)
+   * 
+   * @param className the class declaring the method as in "A"
+   * @param methodName the method as in "m"
+   * @return the interned type of the method or ERROR if there is no such method
+   */
+  public default TypeId getMethodTypeId(String className, String methodName) {
+    return getTypeId(TypeCheckUtils.buildName(className, methodName));
+  }
+
+  /**
+   * Gives the scope in which the types of this table are interned.
+   * 
+   * <p>Tables that keep only type names keep this default, which gives a scope
+   * that lives as long as the table.
+   * 
+   * @ensures getTypeScope() == getTypeScope()
+   * 
+   * @return the scope of every type from this table
+   */
+  public default TypeScope getTypeScope() {
+    return TypeScope.of(this);
+  }
+
+  /**
+   * Gives the subclass relation over the classes in this table.
+   * 
+   * @return the hierarchy, which is empty if no class extends another
+   */
+  public default TypeHierarchy getTypeHierarchy() {
+    return TypeHierarchy.EMPTY;
+  }
+
   /**
    * Pushes new scope for local variables.
    */
@@ -52,4 +146,35 @@ public interface ISymbolTable {
    * @param type the type of the local variable
    */
   public void addLocal(String name, String type);
+
+  /**
+   * Associates the interned type with the name in the top scope on the stack.
+   * 
+   * @requires name \not\in Types
+   * 
+   * @ensures name \in Types /\ Types(name) = type
+   * 
+   * @param name a local variable name
+   * @param type the interned type of the local variable
+   */
+  public default void addLocal(String name, TypeId type) {
+    addLocal(name, type.getName());
+  }
+
+  /**
+   * Creates a symbol table sharing this table's class-level declarations.
+   * 
+   * <p>The new table has its own empty local scope stack, so it can be used by
+   * another thread while this table is in use, as long as neither adds locals
+   * without first pushing a scope.
+   * 
+   * <p>Tables that cannot fork keep this default, which throws
+   * UnsupportedOperationException. {@link TypeCheckBuilder} then checks methods
+   * sequentially.
+   * 
+   * @return a symbol table with the same fields and methods and no locals
+   */
+  public default ISymbolTable forkClassScope() {
+    throw new UnsupportedOperationException("forkClassScope");
+  }
 }
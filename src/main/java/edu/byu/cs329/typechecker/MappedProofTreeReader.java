@@ -0,0 +1,291 @@
+package edu.byu.cs329.typechecker;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Answers questions about a proof file written by {@link ProofTreeWriter} without
+ * reading it into a {@link ProofTree}.
+ *
+ * <p>The file is memory mapped. The verdict is read from the header alone. Finding
+ * the failed judgments walks the node records once, skipping over strings and
+ * remembering only where they are, and decodes just the strings in the display
+ * names of the failed judgments and the proofs that enclose them.
+ *
+ * <p>The file has no index of where each node starts, so a node can only be
+ * reached by scanning the nodes before it. Finding the failed judgments is
+ * linear in the size of the file, and is done once, on the first call.
+ */
+public class MappedProofTreeReader {
+  private static final ProofTree.Kind[] KINDS = ProofTree.Kind.values();
+  private static final int INITIAL_CAPACITY = 16;
+
+  private final ByteBuffer buffer;
+  private final boolean isTypeSafe;
+  private final int size;
+  private final int start;
+
+  private int[] stringOffsets = new int[INITIAL_CAPACITY];
+  private String[] strings = new String[INITIAL_CAPACITY];
+  private int stringCount = 0;
+  private final TypeScope typeScope = new TypeScope();
+  private List<String> failedJudgments = null;
+
+  /**
+   * Maps a proof file.
+   *
+   * @param file a file written by {@link ProofTreeWriter}
+   * @throws IOException if the file cannot be mapped or is not a proof
+   */
+  public MappedProofTreeReader(Path file) throws IOException {
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+    }
+    try {
+      for (byte b : ProofTreeWriter.MAGIC) {
+        if (buffer.get() != b) {
+          throw new IOException("not a proof tree");
+        }
+      }
+      int version = buffer.get() & 0xFF;
+      if (version != ProofTreeWriter.VERSION) {
+        throw new IOException("unsupported proof tree version " + version);
+      }
+      isTypeSafe = buffer.get() == 1;
+      size = readVarint();
+    } catch (BufferUnderflowException e) {
+      throw new IOException("truncated proof tree", e);
+    }
+    start = buffer.position();
+  }
+
+  /**
+   * Gives the verdict in the file.
+   *
+   * @return true iff the checked node was type safe
+   */
+  public boolean isTypeSafe() {
+    return isTypeSafe;
+  }
+
+  /**
+   * Gives the number of nodes in the proof.
+   *
+   * @return 0 if the file holds only a verdict
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Gives each judgment that fails along with the proofs that enclose it.
+   *
+   * @return the paths of display names, as in "/CompilationUnit :ERROR/.../E(x) = ERROR",
+   *     in the order of the proof
+   * @throws IOException if the file is not a well formed proof
+   */
+  public synchronized List<String> getFailedJudgments() throws IOException {
+    if (failedJudgments == null) {
+      failedJudgments = Collections.unmodifiableList(findFailedJudgments());
+    }
+    return failedJudgments;
+  }
+
+  private List<String> findFailedJudgments() throws IOException {
+    List<String> failures = new ArrayList<>();
+    buffer.position(start);
+    stringCount = 0;
+
+    // The open proofs, innermost last, and the types of the proofs among their
+    // children so far, which are what an all-void judgment is over.
+    int[] remaining = new int[INITIAL_CAPACITY];
+    int[] kinds = new int[INITIAL_CAPACITY];
+    int[] nameRefs = new int[INITIAL_CAPACITY];
+    int[] typeRefs = new int[INITIAL_CAPACITY];
+    int[] numbers = new int[INITIAL_CAPACITY];
+    int[] childTypeStarts = new int[INITIAL_CAPACITY];
+    int[] childTypes = new int[INITIAL_CAPACITY];
+    int childTypeCount = 0;
+    int depth = 0;
+
+    try {
+      for (int node = 0; node < size; ++node) {
+        if (depth > 0) {
+          remaining[depth - 1]--;
+        }
+
+        int header = buffer.get() & 0xFF;
+        boolean isFailing = (header & ProofTreeWriter.FAILS) != 0;
+        int ordinal = header & ~ProofTreeWriter.FAILS;
+        if (ordinal >= KINDS.length) {
+          throw new IOException("unknown proof node kind " + ordinal);
+        }
+        ProofTree.Kind kind = KINDS[ordinal];
+        switch (kind) {
+          case LOOKUP: {
+            int nameRef = readRef();
+            int typeRef = readRef();
+            if (isFailing) {
+              failures.add(getPath(depth, kinds, nameRefs, typeRefs, numbers)
+                  + ProofTree.formatLookup(getString(nameRef), getType(typeRef)));
+            }
+            break;
+          }
+          case COMPATIBLE: {
+            int leftRef = readRef();
+            int rightRef = readRef();
+            if (isFailing) {
+              failures.add(getPath(depth, kinds, nameRefs, typeRefs, numbers)
+                  + ProofTree.formatCompatible(getType(leftRef), getType(rightRef)));
+            }
+            break;
+          }
+          case ALL_VOID:
+            if (isFailing) {
+              List<TypeId> types = new ArrayList<>();
+              int from = depth == 0 ? 0 : childTypeStarts[depth - 1];
+              for (int i = from; i < childTypeCount; ++i) {
+                types.add(getType(childTypes[i]));
+              }
+              failures.add(getPath(depth, kinds, nameRefs, typeRefs, numbers)
+                  + ProofTree.formatAllVoid(types));
+            }
+            break;
+          case NO_OBLIGATION:
+            break;
+          default: {
+            // read in the order written, so not declared where they are used
+            final int children = readVarint();
+            final int nameRef = readRef();
+            int typeRef = readRef();
+            int number = 0;
+            if (kind == ProofTree.Kind.BLOCK || kind == ProofTree.Kind.STATEMENT) {
+              number = readVarint();
+            }
+
+            if (childTypeCount == childTypes.length) {
+              childTypes = Arrays.copyOf(childTypes, childTypeCount * 2);
+            }
+            childTypes[childTypeCount++] = typeRef;
+
+            if (depth == remaining.length) {
+              int capacity = depth * 2;
+              remaining = Arrays.copyOf(remaining, capacity);
+              kinds = Arrays.copyOf(kinds, capacity);
+              nameRefs = Arrays.copyOf(nameRefs, capacity);
+              typeRefs = Arrays.copyOf(typeRefs, capacity);
+              numbers = Arrays.copyOf(numbers, capacity);
+              childTypeStarts = Arrays.copyOf(childTypeStarts, capacity);
+            }
+            remaining[depth] = children;
+            kinds[depth] = ordinal;
+            nameRefs[depth] = nameRef;
+            typeRefs[depth] = typeRef;
+            numbers[depth] = number;
+            childTypeStarts[depth] = childTypeCount;
+            ++depth;
+            break;
+          }
+        }
+
+        while (depth > 0 && remaining[depth - 1] == 0) {
+          --depth;
+          childTypeCount = childTypeStarts[depth];
+        }
+      }
+    } catch (BufferUnderflowException | IllegalArgumentException e) {
+      throw new IOException("truncated proof tree", e);
+    }
+    return failures;
+  }
+
+  private String getPath(int depth, int[] kinds, int[] nameRefs, int[] typeRefs,
+      int[] numbers) {
+    StringBuilder path = new StringBuilder();
+    for (int i = 0; i < depth; ++i) {
+      ProofTree.Kind kind = KINDS[kinds[i]];
+      String className = null;
+      if (kind == ProofTree.Kind.METHOD && i > 0 && KINDS[kinds[i - 1]] == ProofTree.Kind.CLASS) {
+        className = getString(nameRefs[i - 1]);
+      }
+      path.append('/').append(ProofTree.formatProof(kind, className, getString(nameRefs[i]),
+          numbers[i], getType(typeRefs[i])));
+    }
+    return path.append('/').toString();
+  }
+
+  /**
+   * Reads a reference to a string, recording where a new string is and skipping it.
+   *
+   * @return the index of the string or -1 for null
+   */
+  private int readRef() throws IOException {
+    int ref = readVarint();
+    if (ref == ProofTreeWriter.NULL_REF) {
+      return -1;
+    } else if (ref != ProofTreeWriter.NEW_REF) {
+      int index = ref - ProofTreeWriter.FIRST_REF;
+      if (index >= stringCount) {
+        throw new IOException("undefined string " + index);
+      }
+      return index;
+    }
+
+    if (stringCount == stringOffsets.length) {
+      stringOffsets = Arrays.copyOf(stringOffsets, stringCount * 2);
+      strings = Arrays.copyOf(strings, stringCount * 2);
+    }
+    stringOffsets[stringCount] = buffer.position();
+    strings[stringCount] = null;
+    int length = readVarint();
+    if (length < 0 || length > buffer.remaining()) {
+      throw new IOException("bad string length " + length);
+    }
+    buffer.position(buffer.position() + length);
+    return stringCount++;
+  }
+
+  private String getString(int index) {
+    if (index < 0) {
+      return null;
+    }
+    if (strings[index] == null) {
+      ByteBuffer view = buffer.duplicate();
+      view.position(stringOffsets[index]);
+      int length = readVarint(view);
+      byte[] bytes = new byte[length];
+      view.get(bytes);
+      strings[index] = new String(bytes, StandardCharsets.UTF_8);
+    }
+    return strings[index];
+  }
+
+  private TypeId getType(int index) {
+    return index < 0 ? null : typeScope.of(getString(index));
+  }
+
+  private int readVarint() {
+    return readVarint(buffer);
+  }
+
+  private static int readVarint(ByteBuffer buffer) {
+    int value = 0;
+    int shift = 0;
+    int b = 0;
+    do {
+      b = buffer.get() & 0xFF;
+      value |= (b & 0x7F) << shift;
+      shift += 7;
+    } while ((b & 0x80) != 0 && shift < 32);
+    return value;
+  }
+}
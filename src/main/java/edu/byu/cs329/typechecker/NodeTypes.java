@@ -0,0 +1,40 @@
+package edu.byu.cs329.typechecker;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.eclipse.jdt.core.dom.ASTNode;
+
+/**
+ * The type the type checker computed for each node it visited.
+ *
+ * <p>Given to {@link TypeCheckBuilder#setNodeTypes(NodeTypes)} so one check
+ * serves later passes that need the types. Nodes are keyed by identity, since
+ * JDT nodes do not override equals, and the map is concurrent so methods checked
+ * in parallel record into it directly. The AST itself is not changed.
+ */
+public class NodeTypes {
+  private final Map<ASTNode, TypeId> types = new ConcurrentHashMap<>();
+
+  /**
+   * Gives the type computed for a node.
+   *
+   * @param node a node in a checked AST
+   * @return the type of an expression, VOID or ERROR for a statement, block,
+   *     method, class, or compilation unit, and null if node was not visited
+   */
+  public TypeId getType(ASTNode node) {
+    return types.get(node);
+  }
+
+  public int size() {
+    return types.size();
+  }
+
+  public void clear() {
+    types.clear();
+  }
+
+  void put(ASTNode node, TypeId type) {
+    types.put(node, type);
+  }
+}
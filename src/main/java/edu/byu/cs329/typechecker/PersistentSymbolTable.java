@@ -0,0 +1,385 @@
+package edu.byu.cs329.typechecker;
+
+import edu.byu.cs329.utils.ExceptionUtils;
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A symbol table that is never changed once made.
+ *
+ * <p>Adding a local or entering a scope gives a new table and leaves this one as
+ * it was, so a table is a snapshot of the environment at a program point that
+ * may be kept, and read from many threads, without copying. The locals are kept
+ * in a hash array mapped trie: a new table copies only the path to the changed
+ * entry, which is O(log n) in the number of locals, and shares the rest. The
+ * declarations of the classes are shared by every table made from the same
+ * {@link SymbolTableBuilder#getPersistentSymbolTable(org.eclipse.jdt.core.dom.ASTNode)}.
+ *
+ * <p>{@link #toSymbolTable()} gives an {@link ISymbolTable} over these tables for
+ * the type checker, with {@link Cursor#snapshot()} to take the table at any point.
+ */
+public final class PersistentSymbolTable {
+  private static final int BITS = 5;
+  private static final int MASK = (1 << BITS) - 1;
+
+  private final Map<String, TypeId> classTypeMap;
+  private final Map<String, List<SimpleImmutableEntry<String, TypeId>>> parameterTypeMap;
+  private final Map<String, ClassMembers> classMap;
+  private final TypeHierarchy typeHierarchy;
+  private final TypeScope typeScope;
+  private final Node locals;
+  private final int size;
+  private final PersistentSymbolTable enclosing;
+
+  PersistentSymbolTable(Map<String, TypeId> classTypeMap,
+      Map<String, List<SimpleImmutableEntry<String, TypeId>>> parameterTypeMap,
+      Map<String, ClassMembers> classMap, TypeHierarchy typeHierarchy, TypeScope typeScope) {
+    this(classTypeMap, parameterTypeMap, classMap, typeHierarchy, typeScope, null, 0, null);
+  }
+
+  private PersistentSymbolTable(Map<String, TypeId> classTypeMap,
+      Map<String, List<SimpleImmutableEntry<String, TypeId>>> parameterTypeMap,
+      Map<String, ClassMembers> classMap, TypeHierarchy typeHierarchy, TypeScope typeScope,
+      Node locals, int size, PersistentSymbolTable enclosing) {
+    this.classTypeMap = classTypeMap;
+    this.parameterTypeMap = parameterTypeMap;
+    this.classMap = classMap;
+    this.typeHierarchy = typeHierarchy;
+    this.typeScope = typeScope;
+    this.locals = locals;
+    this.size = size;
+    this.enclosing = enclosing;
+  }
+
+  /**
+   * Gives the type of a name.
+   *
+   * @param name a local or a member as in "A.f"
+   * @return the declared type or ERROR if the name is not declared
+   */
+  public TypeId getTypeId(String name) {
+    TypeId type = locals == null ? null : locals.get(name, name.hashCode(), 0);
+    if (type == null) {
+      type = classTypeMap.get(name);
+    }
+    return type == null ? TypeId.ERROR : type;
+  }
+
+  public TypeId getFieldTypeId(String className, String fieldName) {
+    return ClassMembers.getFieldType(classMap, className, fieldName);
+  }
+
+  public TypeId getMethodTypeId(String className, String methodName) {
+    return ClassMembers.getMethodType(classMap, className, methodName);
+  }
+
+  public List<SimpleImmutableEntry<String, TypeId>> getParameterTypeIdList(String className,
+      String methodName) {
+    return ClassMembers.getParameterTypes(classMap, className, methodName);
+  }
+
+  public TypeHierarchy getTypeHierarchy() {
+    return typeHierarchy;
+  }
+
+  public TypeScope getTypeScope() {
+    return typeScope;
+  }
+
+  /**
+   * Gives the number of locals in every open scope.
+   *
+   * @return the number of locals
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Gives the number of open scopes.
+   *
+   * @return 0 for a table with only the class declarations
+   */
+  public int getScopeDepth() {
+    int depth = 0;
+    for (PersistentSymbolTable table = enclosing; table != null; table = table.enclosing) {
+      ++depth;
+    }
+    return depth;
+  }
+
+  /**
+   * Enters a scope.
+   *
+   * @return a table with the same locals in which locals can be added and then
+   *     dropped with {@link #popScope()}
+   */
+  public PersistentSymbolTable pushScope() {
+    return new PersistentSymbolTable(classTypeMap, parameterTypeMap, classMap, typeHierarchy,
+        typeScope, locals, size, this);
+  }
+
+  /**
+   * Leaves a scope.
+   *
+   * @requires getScopeDepth() > 0
+   *
+   * @return the table from which the innermost scope was entered
+   */
+  public PersistentSymbolTable popScope() {
+    if (enclosing == null) {
+      ExceptionUtils.throwRuntimeException("no scope to pop");
+    }
+    return enclosing;
+  }
+
+  /**
+   * Adds a local to the innermost scope.
+   *
+   * @requires getScopeDepth() > 0
+   * @requires name is not declared
+   *
+   * @param name the name of the local
+   * @param type the declared type
+   * @return a table that also has the local
+   */
+  public PersistentSymbolTable addLocal(String name, TypeId type) {
+    TypeId existingType = getTypeId(name);
+    if (!TypeCheckTypes.isError(existingType)) {
+      ExceptionUtils.throwRuntimeException(
+          name + " already exists in symbol table with type " + existingType);
+    }
+    Entry entry = new Entry(name, name.hashCode(), type, null);
+    Node newLocals = locals == null ? Node.of(entry) : locals.put(entry, 0);
+    return new PersistentSymbolTable(classTypeMap, parameterTypeMap, classMap, typeHierarchy,
+        typeScope, newLocals, size + 1, enclosing);
+  }
+
+  /**
+   * Gives a table with the same class declarations and no scopes.
+   *
+   * @return the table for a new method
+   */
+  public PersistentSymbolTable getClassScope() {
+    return new PersistentSymbolTable(classTypeMap, parameterTypeMap, classMap, typeHierarchy,
+        typeScope);
+  }
+
+  /**
+   * Gives a mutable symbol table that starts at this table.
+   *
+   * @return a cursor whose changes make new tables and leave this one as it is
+   */
+  public Cursor toSymbolTable() {
+    return new Cursor(this);
+  }
+
+  /**
+   * A mutable {@link ISymbolTable} that moves from one persistent table to the next.
+   *
+   * <p>A cursor is used by one thread at a time, but the tables it gives from
+   * {@link #snapshot()} may be shared.
+   */
+  public static final class Cursor implements ISymbolTable {
+    private PersistentSymbolTable current;
+
+    private Cursor(PersistentSymbolTable current) {
+      this.current = current;
+    }
+
+    /**
+     * Gives the table at this point.
+     *
+     * @return a table that later changes through this cursor do not affect
+     */
+    public PersistentSymbolTable snapshot() {
+      return current;
+    }
+
+    @Override
+    public String getType(String name) {
+      return getTypeId(name).getName();
+    }
+
+    @Override
+    public TypeId getTypeId(String name) {
+      return current.getTypeId(name);
+    }
+
+    @Override
+    public List<SimpleImmutableEntry<String, String>> getParameterTypeList(String name) {
+      return SymbolTableBuilder.getTypeNameList(getParameterTypeIdList(name));
+    }
+
+    @Override
+    public List<SimpleImmutableEntry<String, TypeId>> getParameterTypeIdList(String name) {
+      return current.parameterTypeMap.get(name);
+    }
+
+    @Override
+    public List<SimpleImmutableEntry<String, TypeId>> getParameterTypeIdList(String className,
+        String methodName) {
+      return current.getParameterTypeIdList(className, methodName);
+    }
+
+    @Override
+    public TypeId getFieldTypeId(String className, String fieldName) {
+      return current.getFieldTypeId(className, fieldName);
+    }
+
+    @Override
+    public TypeId getMethodTypeId(String className, String methodName) {
+      return current.getMethodTypeId(className, methodName);
+    }
+
+    @Override
+    public TypeScope getTypeScope() {
+      return current.getTypeScope();
+    }
+
+    @Override
+    public TypeHierarchy getTypeHierarchy() {
+      return current.getTypeHierarchy();
+    }
+
+    @Override
+    public void pushScope() {
+      current = current.pushScope();
+    }
+
+    @Override
+    public void popScope() {
+      current = current.popScope();
+    }
+
+    @Override
+    public void addLocal(String name, String type) {
+      addLocal(name, current.getTypeScope().of(type));
+    }
+
+    @Override
+    public void addLocal(String name, TypeId type) {
+      current = current.addLocal(name, type);
+    }
+
+    @Override
+    public ISymbolTable forkClassScope() {
+      return new Cursor(current.getClassScope());
+    }
+  }
+
+  /**
+   * A local, linked to the other locals whose names have the same hash.
+   */
+  private static final class Entry {
+    final String name;
+    final int hash;
+    final TypeId type;
+    final Entry next;
+
+    Entry(String name, int hash, TypeId type, Entry next) {
+      this.name = name;
+      this.hash = hash;
+      this.type = type;
+      this.next = next;
+    }
+  }
+
+  /**
+   * A level of the trie, indexed by five bits of the hash at its depth.
+   *
+   * <p>Only the slots in use are stored, in the order of their bits in the bitmap.
+   * A slot holds an {@link Entry} or the {@link Node} for the next five bits.
+   */
+  private static final class Node {
+    final int bitmap;
+    final Object[] slots;
+
+    Node(int bitmap, Object[] slots) {
+      this.bitmap = bitmap;
+      this.slots = slots;
+    }
+
+    static Node of(Entry entry) {
+      return new Node(bit(entry.hash, 0), new Object[] {entry});
+    }
+
+    TypeId get(String name, int hash, int shift) {
+      Node node = this;
+      while (true) {
+        int bit = bit(hash, shift);
+        if ((node.bitmap & bit) == 0) {
+          return null;
+        }
+        Object slot = node.slots[node.index(bit)];
+        if (slot instanceof Node) {
+          node = (Node) slot;
+          shift += BITS;
+          continue;
+        }
+        for (Entry entry = (Entry) slot; entry != null; entry = entry.next) {
+          if (entry.hash == hash && entry.name.equals(name)) {
+            return entry.type;
+          }
+        }
+        return null;
+      }
+    }
+
+    /**
+     * Gives a node that also has the entry, copying only the path to it.
+     *
+     * @requires no entry in the trie has the name of entry
+     */
+    Node put(Entry entry, int shift) {
+      int bit = bit(entry.hash, shift);
+      int index = index(bit);
+      if ((bitmap & bit) == 0) {
+        Object[] newSlots = new Object[slots.length + 1];
+        System.arraycopy(slots, 0, newSlots, 0, index);
+        newSlots[index] = entry;
+        System.arraycopy(slots, index, newSlots, index + 1, slots.length - index);
+        return new Node(bitmap | bit, newSlots);
+      }
+
+      Object slot = slots[index];
+      Object newSlot = null;
+      if (slot instanceof Node) {
+        newSlot = ((Node) slot).put(entry, shift + BITS);
+      } else {
+        Entry existing = (Entry) slot;
+        if (existing.hash == entry.hash) {
+          newSlot = new Entry(entry.name, entry.hash, entry.type, existing);
+        } else {
+          newSlot = merge(existing, entry, shift + BITS);
+        }
+      }
+      Object[] newSlots = slots.clone();
+      newSlots[index] = newSlot;
+      return new Node(bitmap, newSlots);
+    }
+
+    /**
+     * Gives the node under which two entries with different hashes first differ.
+     */
+    private static Node merge(Entry first, Entry second, int shift) {
+      int firstBit = bit(first.hash, shift);
+      int secondBit = bit(second.hash, shift);
+      if (firstBit == secondBit) {
+        return new Node(firstBit, new Object[] {merge(first, second, shift + BITS)});
+      }
+      Object[] slots = Integer.compareUnsigned(firstBit, secondBit) < 0
+          ? new Object[] {first, second} : new Object[] {second, first};
+      return new Node(firstBit | secondBit, slots);
+    }
+
+    private int index(int bit) {
+      return Integer.bitCount(bitmap & (bit - 1));
+    }
+
+    private static int bit(int hash, int shift) {
+      return 1 << ((hash >>> shift) & MASK);
+    }
+  }
+}
@@ -0,0 +1,233 @@
+package edu.byu.cs329.typechecker;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Generates programs in the supported subset of Java for scale testing.
+ *
+ * <p>A generated program is a single class with fields and methods whose bodies
+ * declare int, boolean, and class-typed locals in nested blocks. Initializers are
+ * literals, null, parameters, or locals in scope. An ill-typed program has
+ * exactly one declaration that is a type error, so the verdict the checker should
+ * give is always known.
+ */
+public class ProgramGenerator {
+  static final String CLASS_NAME = "C";
+  static final String OTHER_CLASS_NAME = "Integer";
+
+  private static final String[] TYPES = {
+      TypeCheckTypes.INT, TypeCheckTypes.BOOL, CLASS_NAME, OTHER_CLASS_NAME
+  };
+
+  /**
+   * A generated program and the verdict the checker should give for it.
+   */
+  public static class Program {
+    private final String source;
+    private final boolean isTypeSafe;
+
+    Program(String source, boolean isTypeSafe) {
+      this.source = source;
+      this.isTypeSafe = isTypeSafe;
+    }
+
+    public String getSource() {
+      return source;
+    }
+
+    public boolean isTypeSafe() {
+      return isTypeSafe;
+    }
+  }
+
+  private final long seed;
+  private final int fields;
+  private final int methods;
+  private final int parameters;
+  private final int statements;
+  private final int depth;
+
+  private Random random = null;
+  private List<List<String>> scopes = null;
+  private int localCounter = 0;
+
+  /**
+   * Creates a generator for programs of the given shape.
+   *
+   * @param seed the seed for the random choices
+   * @param fields the number of fields in the class
+   * @param methods the number of methods in the class
+   * @param parameters the number of parameters of each method
+   * @param statements the number of declarations in each block
+   * @param depth the number of nested blocks in each method body
+   */
+  public ProgramGenerator(long seed, int fields, int methods, int parameters, int statements,
+      int depth) {
+    this.seed = seed;
+    this.fields = fields;
+    this.methods = methods;
+    this.parameters = parameters;
+    this.statements = statements;
+    this.depth = depth;
+  }
+
+  /**
+   * Generates the program for this generator's seed.
+   *
+   * <p>The same seed, shape, and verdict always give the same program.
+   *
+   * @requires !isTypeSafe ==> methods > 0 /\ statements > 0 /\ depth > 0
+   *
+   * @param isTypeSafe true for a type safe program and false for an ill-typed one
+   * @return the program and its expected verdict
+   */
+  public Program generate(boolean isTypeSafe) {
+    random = new Random(seed);
+    int errorMethod = isTypeSafe ? -1 : random.nextInt(methods);
+    int errorBlock = isTypeSafe ? -1 : random.nextInt(depth);
+    int errorStatement = isTypeSafe ? -1 : random.nextInt(statements);
+
+    StringBuilder source = new StringBuilder();
+    source.append("public class ").append(CLASS_NAME).append(" {\n");
+    for (int f = 0; f < fields; ++f) {
+      source.append("  ").append(pickType()).append(" f").append(f).append(";\n");
+    }
+
+    for (int m = 0; m < methods; ++m) {
+      scopes = new ArrayList<>();
+      localCounter = 0;
+      pushScope();
+      source.append("\n  ").append(random.nextBoolean() ? TypeCheckTypes.VOID : pickType())
+          .append(" m").append(m).append('(');
+      for (int p = 0; p < parameters; ++p) {
+        String type = pickType();
+        String name = "p" + p;
+        declare(type, name);
+        source.append(p == 0 ? "" : ", ").append(type).append(' ').append(name);
+      }
+      source.append(") ");
+      int error = m == errorMethod ? errorBlock * statements + errorStatement : -1;
+      generateBlock(source, 1, 0, error);
+      source.append('\n');
+    }
+    source.append("}\n");
+    return new Program(source.toString(), isTypeSafe);
+  }
+
+  private void generateBlock(StringBuilder source, int level, int block, int error) {
+    pushScope();
+    source.append("{\n");
+    for (int s = 0; s < statements; ++s) {
+      indent(source, level + 1);
+      if (block * statements + s == error) {
+        generateIllTypedDeclaration(source);
+      } else {
+        generateDeclaration(source);
+      }
+      source.append('\n');
+    }
+    if (block + 1 < depth) {
+      indent(source, level + 1);
+      generateBlock(source, level + 1, block + 1, error);
+      source.append('\n');
+    }
+    indent(source, level).append('}');
+    popScope();
+  }
+
+  private void generateDeclaration(StringBuilder source) {
+    String type = pickType();
+    String name = "v" + localCounter++;
+    source.append(type).append(' ').append(name);
+
+    String initializer = null;
+    switch (random.nextInt(3)) {
+      case 0:
+        initializer = null;
+        break;
+      case 1:
+        initializer = pickLiteral(type);
+        break;
+      default:
+        initializer = pickVisible(type);
+        if (initializer == null) {
+          initializer = pickLiteral(type);
+        }
+        break;
+    }
+    if (initializer != null) {
+      source.append(" = ").append(initializer);
+    }
+    source.append(';');
+    declare(type, name);
+  }
+
+  private void generateIllTypedDeclaration(StringBuilder source) {
+    String name = "v" + localCounter++;
+    switch (random.nextInt(4)) {
+      case 0:
+        source.append(TypeCheckTypes.INT).append(' ').append(name).append(" = true;");
+        break;
+      case 1:
+        source.append(TypeCheckTypes.BOOL).append(' ').append(name).append(" = 1;");
+        break;
+      case 2:
+        source.append(TypeCheckTypes.INT).append(' ').append(name).append(" = null;");
+        break;
+      default:
+        source.append(CLASS_NAME).append(' ').append(name).append(" = undeclared;");
+        break;
+    }
+  }
+
+  private String pickType() {
+    return TYPES[random.nextInt(TYPES.length)];
+  }
+
+  private String pickLiteral(String type) {
+    if (type.equals(TypeCheckTypes.INT)) {
+      return Integer.toString(random.nextInt(1000));
+    } else if (type.equals(TypeCheckTypes.BOOL)) {
+      return Boolean.toString(random.nextBoolean());
+    }
+    return "null";
+  }
+
+  private String pickVisible(String type) {
+    List<String> candidates = new ArrayList<>();
+    for (List<String> scope : scopes) {
+      for (int i = 0; i < scope.size(); i += 2) {
+        if (scope.get(i).equals(type)) {
+          candidates.add(scope.get(i + 1));
+        }
+      }
+    }
+    if (candidates.isEmpty()) {
+      return null;
+    }
+    return candidates.get(random.nextInt(candidates.size()));
+  }
+
+  private void declare(String type, String name) {
+    List<String> scope = scopes.get(scopes.size() - 1);
+    scope.add(type);
+    scope.add(name);
+  }
+
+  private void pushScope() {
+    scopes.add(new ArrayList<>());
+  }
+
+  private void popScope() {
+    scopes.remove(scopes.size() - 1);
+  }
+
+  private static StringBuilder indent(StringBuilder source, int level) {
+    for (int i = 0; i < level; ++i) {
+      source.append("  ");
+    }
+    return source;
+  }
+}
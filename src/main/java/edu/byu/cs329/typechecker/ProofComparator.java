@@ -0,0 +1,302 @@
+package edu.byu.cs329.typechecker;
+
+import edu.byu.cs329.utils.ExceptionUtils;
+import java.util.Iterator;
+import java.util.List;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DynamicContainer;
+import org.junit.jupiter.api.DynamicNode;
+import org.junit.jupiter.api.DynamicTest;
+
+/**
+ * Checks a proof against an expected proof written as text.
+ *
+ * <p>The text has one line for each node in preorder, indented two spaces for
+ * each proof it is under. A proof is its display name, and a judgment is its
+ * display name followed by " PASS" or " FAIL":
+ *
+ * <pre>
+ * CompilationUnit :void
+ *   class A:void
+ *     method A.m:void
+ *       B0:void
+ *         true PASS
+ *       void = void PASS
+ *     void = void PASS
+ *   void = void PASS
+ * </pre>
+ *
+ * <p>{@link #format(ProofTree)} writes a proof in this form. The check stops at the
+ * first node that differs and gives its path, so a regression run only looks at
+ * as much of the proof as it must. A {@link ProofTree} is checked node by node
+ * without building any test, and the tests from
+ * {@link TypeCheckBuilder#getTypeChecker(ISymbolTable, org.eclipse.jdt.core.dom.ASTNode,
+ * List)} are only expanded and run up to the first difference.
+ */
+public class ProofComparator {
+  private static final String INDENT = "  ";
+  private static final String PASS = " PASS";
+  private static final String FAIL = " FAIL";
+  private static final byte PROOF = 0;
+  private static final byte PASSES = 1;
+  private static final byte FAILS = 2;
+
+  private final String[] names;
+  private final byte[] outcomes;
+  private final int[] parents;
+  private final int[] ends;
+  private final int size;
+
+  /**
+   * Creates a comparator for an expected proof.
+   *
+   * @requires expected is in the form of {@link #format(ProofTree)}
+   *
+   * @param expected the proof as text; blank lines are ignored
+   */
+  public ProofComparator(String expected) {
+    String[] lines = expected.split("\r?\n");
+    names = new String[lines.length];
+    outcomes = new byte[lines.length];
+    parents = new int[lines.length];
+    ends = new int[lines.length];
+    int[] open = new int[lines.length + 1];
+    int depth = 0;
+    int node = 0;
+    for (String line : lines) {
+      if (line.trim().isEmpty()) {
+        continue;
+      }
+      int indent = 0;
+      while (line.startsWith(INDENT, indent)) {
+        indent += INDENT.length();
+      }
+      int lineDepth = indent / INDENT.length();
+      if (line.charAt(indent) == ' ' || lineDepth > depth) {
+        ExceptionUtils.throwRuntimeException("bad indentation in proof line: " + line);
+      }
+      for (; depth > lineDepth; --depth) {
+        ends[open[depth - 1]] = node;
+      }
+      String name = line.substring(indent);
+      byte outcome = PROOF;
+      if (name.endsWith(PASS)) {
+        outcome = PASSES;
+      } else if (name.endsWith(FAIL)) {
+        outcome = FAILS;
+      }
+      names[node] = outcome == PROOF ? name : name.substring(0, name.length() - PASS.length());
+      outcomes[node] = outcome;
+      parents[node] = depth == 0 ? -1 : open[depth - 1];
+      ends[node] = node + 1;
+      if (outcome == PROOF) {
+        open[depth++] = node;
+      }
+      ++node;
+    }
+    for (; depth > 0; --depth) {
+      ends[open[depth - 1]] = node;
+    }
+    size = node;
+  }
+
+  /**
+   * Writes a proof as text for {@link #ProofComparator(String)}.
+   *
+   * @param proofTree the proof to write
+   * @return a line for each node with a newline after each one
+   */
+  public static String format(ProofTree proofTree) {
+    StringBuilder text = new StringBuilder();
+    int[] depths = new int[proofTree.size()];
+    for (int node = 0; node < proofTree.size(); ++node) {
+      int parent = proofTree.getParent(node);
+      depths[node] = parent < 0 ? 0 : depths[parent] + 1;
+      text.append(INDENT.repeat(depths[node])).append(proofTree.getDisplayName(node));
+      if (proofTree.getKind(node).isJudgment()) {
+        text.append(proofTree.passes(node) ? PASS : FAIL);
+      }
+      text.append('\n');
+    }
+    return text.toString();
+  }
+
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Gives the first difference between the expected proof and a proof tree.
+   *
+   * @param actual the proof to check
+   * @return null if the proofs are the same and otherwise the path of the first
+   *     node in preorder that differs and how it differs
+   */
+  public String getMismatch(ProofTree actual) {
+    int count = Math.min(size, actual.size());
+    for (int node = 0; node < count; ++node) {
+      boolean isJudgment = actual.getKind(node).isJudgment();
+      String mismatch = getMismatch(node, actual.getDisplayName(node), isJudgment);
+      if (mismatch == null && isJudgment) {
+        mismatch = getMismatch(node, actual.passes(node));
+      }
+      if (mismatch == null && actual.getEnd(node) != ends[node]) {
+        // with as many children the difference is further down the subtree
+        int expectedCount = getChildCount(node);
+        int actualCount = (int) actual.getChildren(node).count();
+        if (expectedCount != actualCount) {
+          mismatch = getMismatch(node, expectedCount, actualCount);
+        }
+      }
+      if (mismatch != null) {
+        return mismatch;
+      }
+    }
+    if (actual.size() != size) {
+      return getMismatch(-1, getChildCount(-1), (int) actual.getRoots().count());
+    }
+    return null;
+  }
+
+  /**
+   * Gives the first difference between the expected proof and its tests.
+   *
+   * <p>The children of a container are consumed and a test is run only when every
+   * node before it in preorder is as expected.
+   *
+   * @param actual the tests from the type checker
+   * @return null if the proofs are the same and otherwise the path of the first
+   *     node in preorder that differs and how it differs
+   */
+  public String getMismatch(List<DynamicNode> actual) {
+    return getMismatch(-1, actual.iterator());
+  }
+
+  private String getMismatch(int parent, Iterator<? extends DynamicNode> tests) {
+    int count = 0;
+    for (int node = getFirstChild(parent); node >= 0; node = getNextSibling(node)) {
+      if (!tests.hasNext()) {
+        return getMismatch(parent, getChildCount(parent), count);
+      }
+      ++count;
+      DynamicNode test = tests.next();
+      boolean isJudgment = test instanceof DynamicTest;
+      String mismatch = getMismatch(node, test.getDisplayName(), isJudgment);
+      if (mismatch == null && isJudgment) {
+        mismatch = getMismatch(node, passes((DynamicTest) test));
+      } else if (mismatch == null) {
+        mismatch = getMismatch(node, ((DynamicContainer) test).getChildren().iterator());
+      }
+      if (mismatch != null) {
+        return mismatch;
+      }
+    }
+    if (tests.hasNext()) {
+      int actualCount = count;
+      while (tests.hasNext()) {
+        tests.next();
+        ++actualCount;
+      }
+      return getMismatch(parent, count, actualCount);
+    }
+    return null;
+  }
+
+  private String getMismatch(int node, String displayName, boolean isJudgment) {
+    if (!names[node].equals(displayName)) {
+      return getPath(parents[node]) + ": expected \"" + names[node] + "\" but was \""
+          + displayName + "\"";
+    }
+    if ((outcomes[node] != PROOF) != isJudgment) {
+      return getPath(node) + ": expected a " + getNodeType(outcomes[node] != PROOF)
+          + " but was a " + getNodeType(isJudgment);
+    }
+    return null;
+  }
+
+  private String getMismatch(int node, boolean isPassing) {
+    if ((outcomes[node] == PASSES) != isPassing) {
+      return getPath(node) + ": expected" + (outcomes[node] == PASSES ? PASS : FAIL)
+          + " but was" + (isPassing ? PASS : FAIL);
+    }
+    return null;
+  }
+
+  private String getMismatch(int node, int expectedCount, int actualCount) {
+    return getPath(node) + ": expected " + expectedCount + " children but was "
+        + actualCount;
+  }
+
+  /**
+   * Fails if a proof tree is not the expected proof.
+   *
+   * @param actual the proof to check
+   */
+  public void assertMatches(ProofTree actual) {
+    String mismatch = getMismatch(actual);
+    if (mismatch != null) {
+      Assertions.fail(mismatch);
+    }
+  }
+
+  /**
+   * Fails if the tests are not those for the expected proof.
+   *
+   * @param actual the tests from the type checker
+   */
+  public void assertMatches(List<DynamicNode> actual) {
+    String mismatch = getMismatch(actual);
+    if (mismatch != null) {
+      Assertions.fail(mismatch);
+    }
+  }
+
+  private static String getNodeType(boolean isJudgment) {
+    return isJudgment ? "judgment" : "proof";
+  }
+
+  private static boolean passes(DynamicTest test) {
+    try {
+      test.getExecutable().execute();
+      return true;
+    } catch (AssertionError e) {
+      return false;
+    } catch (RuntimeException | Error e) {
+      throw e;
+    } catch (Throwable e) {
+      throw new IllegalStateException("judgment threw " + e, e);
+    }
+  }
+
+  private String getPath(int node) {
+    if (node < 0) {
+      return "/";
+    }
+    StringBuilder path = new StringBuilder();
+    for (; node >= 0; node = parents[node]) {
+      path.insert(0, names[node]).insert(0, '/');
+    }
+    return path.toString();
+  }
+
+  private int getFirstChild(int node) {
+    if (node < 0) {
+      return size == 0 ? -1 : 0;
+    }
+    return node + 1 < ends[node] ? node + 1 : -1;
+  }
+
+  private int getNextSibling(int node) {
+    int parent = parents[node];
+    int end = parent < 0 ? size : ends[parent];
+    return ends[node] < end ? ends[node] : -1;
+  }
+
+  private int getChildCount(int node) {
+    int count = 0;
+    for (int child = getFirstChild(node); child >= 0; child = getNextSibling(child)) {
+      ++count;
+    }
+    return count;
+  }
+}
@@ -0,0 +1,446 @@
+package edu.byu.cs329.typechecker;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DynamicContainer;
+import org.junit.jupiter.api.DynamicNode;
+import org.junit.jupiter.api.DynamicTest;
+
+/**
+ * Proof of a type check kept in flat arrays.
+ *
+ * <p>Nodes are numbered in preorder so the descendants of node i are exactly the
+ * nodes i + 1 up to {@link #getEnd(int)}. Each node is a proof, which has
+ * children, or a judgment, which does not. Only the parts a node is built from
+ * are stored; display names are formatted the first time they are asked for and
+ * kept, and {@link #toDynamicNodes()} gives the same tests as
+ * {@link TypeCheckBuilder#getTypeChecker(ISymbolTable, org.eclipse.jdt.core.dom.ASTNode,
+ * List)}.
+ */
+public class ProofTree {
+  private static final int INITIAL_CAPACITY = 64;
+
+  /**
+   * What a node proves.
+   */
+  public enum Kind {
+    COMPILATION_UNIT, CLASS, METHOD, BLOCK, STATEMENT, NAME, LITERAL,
+    LOOKUP, COMPATIBLE, ALL_VOID, NO_OBLIGATION;
+
+    private static final Kind[] values = values();
+
+    public boolean isJudgment() {
+      return compareTo(LOOKUP) >= 0;
+    }
+  }
+
+  private byte[] kinds = new byte[INITIAL_CAPACITY];
+  private int[] parents = new int[INITIAL_CAPACITY];
+  private int[] ends = new int[INITIAL_CAPACITY];
+  private String[] names = new String[INITIAL_CAPACITY];
+  private TypeId[] types = new TypeId[INITIAL_CAPACITY];
+  private int[] numbers = new int[INITIAL_CAPACITY];
+  private boolean[] passes = new boolean[INITIAL_CAPACITY];
+  private int size = 0;
+  private volatile String[] displayNames = null;
+
+  private int[] open = new int[INITIAL_CAPACITY];
+  private int depth = 0;
+
+  private final TypeScope typeScope;
+
+  /**
+   * Creates an empty proof.
+   *
+   * @param typeScope the scope of every type in the proof
+   */
+  public ProofTree(TypeScope typeScope) {
+    this.typeScope = typeScope;
+  }
+
+  public int size() {
+    return size;
+  }
+
+  public Kind getKind(int node) {
+    return Kind.values[kinds[node]];
+  }
+
+  /**
+   * Gives the proof that node is a child of.
+   *
+   * @param node a node in the tree
+   * @return the parent or -1 for a root
+   */
+  public int getParent(int node) {
+    return parents[node];
+  }
+
+  /**
+   * Gives the end of the subtree rooted at node.
+   *
+   * @param node a node in the tree
+   * @return one past the last descendant of node
+   */
+  public int getEnd(int node) {
+    return ends[node];
+  }
+
+  /**
+   * Gives the name of a node.
+   *
+   * @param node a node in the tree
+   * @return the class, method, variable, or literal a node is about or null if
+   *     it has no name
+   */
+  public String getName(int node) {
+    return names[node];
+  }
+
+  /**
+   * Gives the type of a node.
+   *
+   * @param node a node in the tree
+   * @return the resulting type of a proof, the type found by a lookup, the
+   *     left type of a compatibility judgment, and null otherwise
+   */
+  public TypeId getType(int node) {
+    return types[node];
+  }
+
+  /**
+   * Gives the right type of a compatibility judgment.
+   *
+   * @requires getKind(node) == Kind.COMPATIBLE
+   *
+   * @param node a compatibility judgment
+   * @return the type of the initializer
+   */
+  public TypeId getRightType(int node) {
+    return typeScope.get(numbers[node]);
+  }
+
+  /**
+   * Gives the number of a block or statement proof within its method.
+   *
+   * @param node a block or statement proof
+   * @return the counter in its "B0" or "S0" display name
+   */
+  public int getNumber(int node) {
+    return numbers[node];
+  }
+
+  /**
+   * Returns true if the judgment holds or every judgment under the proof holds.
+   *
+   * @param node a node in the tree
+   * @return true iff node passes
+   */
+  public boolean passes(int node) {
+    return passes[node];
+  }
+
+  /**
+   * Returns true if the proof shows the checked node is type safe.
+   *
+   * @return true iff there is a root and every root has type void
+   */
+  public boolean isTypeSafe() {
+    return size > 0 && getRoots().allMatch(root -> TypeCheckTypes.isVoidType(types[root]));
+  }
+
+  /**
+   * Gives the nodes that are not a child of another node.
+   *
+   * @return the roots in order
+   */
+  public IntStream getRoots() {
+    return IntStream.iterate(size == 0 ? -1 : 0, i -> i >= 0, i -> ends[i] < size ? ends[i] : -1);
+  }
+
+  /**
+   * Gives the children of a proof.
+   *
+   * @param node a node in the tree
+   * @return the children in order
+   */
+  public IntStream getChildren(int node) {
+    int end = ends[node];
+    return IntStream.iterate(node + 1 < end ? node + 1 : -1, i -> i >= 0,
+        i -> ends[i] < end ? ends[i] : -1);
+  }
+
+  /**
+   * Gives the display name of a node as in the tests from the type checker.
+   *
+   * <p>The name is formatted on the first call and kept for later calls. Calls
+   * from many threads are safe, though a name may then be formatted more than once.
+   *
+   * @param node a node in the tree
+   * @return the display name
+   */
+  public String getDisplayName(int node) {
+    String[] cache = displayNames;
+    if (cache == null || cache.length < size) {
+      cache = cache == null ? new String[size] : Arrays.copyOf(cache, size);
+      displayNames = cache;
+    }
+    String displayName = cache[node];
+    if (displayName == null) {
+      displayName = formatDisplayName(node);
+      cache[node] = displayName;
+    }
+    return displayName;
+  }
+
+  private String formatDisplayName(int node) {
+    switch (getKind(node)) {
+      case LOOKUP:
+        return formatLookup(names[node], types[node]);
+      case COMPATIBLE:
+        return formatCompatible(types[node], getRightType(node));
+      case ALL_VOID:
+        return formatAllVoid(getSiblingTypes(node));
+      case NO_OBLIGATION:
+        return formatNoObligation();
+      default:
+        return formatProof(getKind(node), getClassName(node), names[node], numbers[node],
+            types[node]);
+    }
+  }
+
+  /**
+   * Gives each judgment that fails along with the proofs that enclose it.
+   *
+   * @return the paths of display names, as in "/CompilationUnit :ERROR/.../E(x) = ERROR",
+   *     in the order of the proof
+   */
+  public List<String> getFailedJudgments() {
+    List<String> failures = new ArrayList<>();
+    for (int node = 0; node < size; ++node) {
+      if (passes[node] || !getKind(node).isJudgment()) {
+        continue;
+      }
+      StringBuilder path = new StringBuilder("/").append(getDisplayName(node));
+      for (int parent = parents[node]; parent >= 0; parent = parents[parent]) {
+        path.insert(0, getDisplayName(parent)).insert(0, '/');
+      }
+      failures.add(path.toString());
+    }
+    return failures;
+  }
+
+  /**
+   * Gives the tests for the proof.
+   *
+   * <p>The children of a container are only turned into tests when its stream of
+   * children is consumed.
+   *
+   * @return the tests for the roots
+   */
+  public List<DynamicNode> toDynamicNodes() {
+    List<DynamicNode> tests = new ArrayList<>();
+    getRoots().forEach(root -> tests.add(toDynamicNode(root)));
+    return tests;
+  }
+
+  /**
+   * Gives the test for a node.
+   *
+   * @param node a node in the tree
+   * @return a container for a proof and a test for a judgment
+   */
+  public DynamicNode toDynamicNode(int node) {
+    String displayName = getDisplayName(node);
+    if (!getKind(node).isJudgment()) {
+      return DynamicContainer.dynamicContainer(displayName,
+          getChildren(node).mapToObj(this::toDynamicNode));
+    }
+    if (getKind(node) == Kind.LOOKUP) {
+      TypeId type = types[node];
+      return DynamicTest.dynamicTest(displayName,
+          () -> Assertions.assertNotEquals(TypeId.ERROR, type));
+    }
+    boolean isPassing = passes[node];
+    return DynamicTest.dynamicTest(displayName, () -> assertTrue(isPassing));
+  }
+
+  private String getClassName(int node) {
+    int parent = parents[node];
+    if (getKind(node) != Kind.METHOD || parent < 0 || getKind(parent) != Kind.CLASS) {
+      return null;
+    }
+    return names[parent];
+  }
+
+  /**
+   * The judgment that every child is void is over the types of the proofs before it.
+   */
+  private List<TypeId> getSiblingTypes(int node) {
+    List<TypeId> siblingTypes = new ArrayList<>();
+    getChildren(parents[node])
+        .filter(i -> i < node && !getKind(i).isJudgment())
+        .forEach(i -> siblingTypes.add(types[i]));
+    return siblingTypes;
+  }
+
+  static String formatProof(Kind kind, String className, String name, int number,
+      TypeId type) {
+    String proofName = null;
+    switch (kind) {
+      case COMPILATION_UNIT:
+        proofName = "CompilationUnit ";
+        break;
+      case CLASS:
+        proofName = "class " + name;
+        break;
+      case METHOD:
+        proofName = TypeCheckUtils.buildName("method " + className, name);
+        break;
+      case BLOCK:
+        proofName = "B" + number;
+        break;
+      case STATEMENT:
+        proofName = "S" + number;
+        break;
+      default:
+        proofName = name;
+        break;
+    }
+    return proofName + ":" + type;
+  }
+
+  static String formatLookup(String name, TypeId type) {
+    return "E(" + name + ") = " + type;
+  }
+
+  static String formatCompatible(TypeId leftType, TypeId rightType) {
+    return leftType + " := " + rightType;
+  }
+
+  static String formatAllVoid(List<TypeId> types) {
+    StringBuilder displayName = new StringBuilder();
+    for (TypeId type : types) {
+      if (displayName.length() > 0) {
+        displayName.append(',');
+      }
+      displayName.append(type.getName());
+    }
+    return displayName.append(" = ").append(TypeId.VOID).toString();
+  }
+
+  static String formatNoObligation() {
+    return "true";
+  }
+
+  /**
+   * Starts a proof whose children are the nodes added until it is closed.
+   */
+  void open() {
+    int node = add(Kind.COMPILATION_UNIT, null, null, 0, true);
+    if (depth == open.length) {
+      open = Arrays.copyOf(open, depth * 2);
+    }
+    open[depth++] = node;
+  }
+
+  /**
+   * Finishes the innermost open proof, adding the trivial judgment if it is empty.
+   *
+   * @requires a proof is open
+   */
+  void close(Kind kind, String name, int number, TypeId type) {
+    int node = open[depth - 1];
+    if (size == node + 1) {
+      addNoObligation();
+    }
+    --depth;
+    kinds[node] = (byte) kind.ordinal();
+    names[node] = name;
+    numbers[node] = number;
+    types[node] = type;
+    ends[node] = size;
+    if (!passes[node] && parents[node] >= 0) {
+      passes[parents[node]] = false;
+    }
+  }
+
+  void addLookup(String name, TypeId type) {
+    add(Kind.LOOKUP, name, type, 0, !TypeCheckTypes.isError(type));
+  }
+
+  void addCompatible(TypeId leftType, TypeId rightType, boolean isCompatible) {
+    add(Kind.COMPATIBLE, null, leftType, rightType.getId(), isCompatible);
+  }
+
+  void addAllVoid(boolean isAllVoid) {
+    add(Kind.ALL_VOID, null, null, 0, isAllVoid);
+  }
+
+  void addNoObligation() {
+    add(Kind.NO_OBLIGATION, null, null, 0, true);
+  }
+
+  /**
+   * Adds the nodes of another tree as children of the innermost open proof.
+   *
+   * @requires no proof is open in subtree
+   * @requires subtree has the same type scope as this tree
+   *
+   * @param subtree the proof to copy, as built for one method on another thread
+   */
+  void append(ProofTree subtree) {
+    ensureCapacity(size + subtree.size);
+    int offset = size;
+    System.arraycopy(subtree.kinds, 0, kinds, offset, subtree.size);
+    System.arraycopy(subtree.names, 0, names, offset, subtree.size);
+    System.arraycopy(subtree.types, 0, types, offset, subtree.size);
+    System.arraycopy(subtree.numbers, 0, numbers, offset, subtree.size);
+    System.arraycopy(subtree.passes, 0, passes, offset, subtree.size);
+    int parent = depth == 0 ? -1 : open[depth - 1];
+    for (int node = 0; node < subtree.size; ++node) {
+      int subtreeParent = subtree.parents[node];
+      parents[offset + node] = subtreeParent < 0 ? parent : offset + subtreeParent;
+      ends[offset + node] = offset + subtree.ends[node];
+      if (subtreeParent < 0 && !subtree.passes[node] && parent >= 0) {
+        passes[parent] = false;
+      }
+    }
+    size += subtree.size;
+  }
+
+  private void ensureCapacity(int capacity) {
+    if (capacity <= kinds.length) {
+      return;
+    }
+    capacity = Math.max(capacity, kinds.length * 2);
+    kinds = Arrays.copyOf(kinds, capacity);
+    parents = Arrays.copyOf(parents, capacity);
+    ends = Arrays.copyOf(ends, capacity);
+    names = Arrays.copyOf(names, capacity);
+    types = Arrays.copyOf(types, capacity);
+    numbers = Arrays.copyOf(numbers, capacity);
+    passes = Arrays.copyOf(passes, capacity);
+  }
+
+  private int add(Kind kind, String name, TypeId type, int number, boolean isPassing) {
+    ensureCapacity(size + 1);
+    int node = size++;
+    kinds[node] = (byte) kind.ordinal();
+    parents[node] = depth == 0 ? -1 : open[depth - 1];
+    ends[node] = size;
+    names[node] = name;
+    types[node] = type;
+    numbers[node] = number;
+    passes[node] = isPassing;
+    if (!isPassing && depth > 0) {
+      passes[open[depth - 1]] = false;
+    }
+    return node;
+  }
+}
@@ -0,0 +1,203 @@
+package edu.byu.cs329.typechecker;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Reads proof trees written by {@link ProofTreeWriter}.
+ *
+ * <p>The stream is read once from front to back, so a proof can be read from a
+ * socket or a compressed stream as well as from a file.
+ */
+public class ProofTreeReader implements Closeable {
+  private static final ProofTree.Kind[] KINDS = ProofTree.Kind.values();
+
+  /**
+   * A proof whose children are still being read.
+   */
+  private static class Pending {
+    final ProofTree.Kind kind;
+    final String name;
+    final TypeId type;
+    final int number;
+    int remaining;
+
+    Pending(ProofTree.Kind kind, String name, TypeId type, int number, int remaining) {
+      this.kind = kind;
+      this.name = name;
+      this.type = type;
+      this.number = number;
+      this.remaining = remaining;
+    }
+  }
+
+  private final InputStream in;
+  private final List<String> dictionary = new ArrayList<>();
+  private TypeScope typeScope = null;
+  private boolean isTypeSafe = false;
+
+  /**
+   * Creates a reader on a stream.
+   *
+   * @param in where to read
+   */
+  public ProofTreeReader(InputStream in) {
+    this.in = new BufferedInputStream(in);
+  }
+
+  /**
+   * Reads the next proof and its verdict.
+   *
+   * <p>The types of each proof are interned in a scope of their own.
+   *
+   * @return the proof, which is empty if only the verdict was written
+   * @throws IOException if the stream cannot be read or is not a proof
+   */
+  public ProofTree read() throws IOException {
+    int size = readHeader();
+    typeScope = new TypeScope();
+    ProofTree proofTree = new ProofTree(typeScope);
+    Deque<Pending> pending = new ArrayDeque<>();
+    for (int node = 0; node < size; ++node) {
+      if (!pending.isEmpty()) {
+        pending.peek().remaining--;
+      }
+
+      int header = readByte();
+      boolean isPassing = (header & ProofTreeWriter.FAILS) == 0;
+      ProofTree.Kind kind = readKind(header);
+      switch (kind) {
+        case LOOKUP:
+          proofTree.addLookup(readString(), readType());
+          break;
+        case COMPATIBLE:
+          proofTree.addCompatible(readType(), readType(), isPassing);
+          break;
+        case ALL_VOID:
+          proofTree.addAllVoid(isPassing);
+          break;
+        case NO_OBLIGATION:
+          proofTree.addNoObligation();
+          break;
+        default:
+          int children = readVarint();
+          String name = readString();
+          TypeId type = readType();
+          int number = 0;
+          if (kind == ProofTree.Kind.BLOCK || kind == ProofTree.Kind.STATEMENT) {
+            number = readVarint();
+          }
+          proofTree.open();
+          pending.push(new Pending(kind, name, type, number, children));
+          break;
+      }
+
+      while (!pending.isEmpty() && pending.peek().remaining == 0) {
+        Pending proof = pending.pop();
+        proofTree.close(proof.kind, proof.name, proof.number, proof.type);
+      }
+    }
+
+    if (!pending.isEmpty()) {
+      throw new IOException("proof ends inside " + pending.peek().kind);
+    }
+    return proofTree;
+  }
+
+  /**
+   * Gives the verdict of the last proof read.
+   *
+   * @return true iff the checked node was type safe
+   */
+  public boolean isTypeSafe() {
+    return isTypeSafe;
+  }
+
+  @Override
+  public void close() throws IOException {
+    in.close();
+  }
+
+  private int readHeader() throws IOException {
+    dictionary.clear();
+    for (byte b : ProofTreeWriter.MAGIC) {
+      if (readByte() != b) {
+        throw new IOException("not a proof tree");
+      }
+    }
+    int version = readByte();
+    if (version != ProofTreeWriter.VERSION) {
+      throw new IOException("unsupported proof tree version " + version);
+    }
+    isTypeSafe = readByte() == 1;
+    return readVarint();
+  }
+
+  private static ProofTree.Kind readKind(int header) throws IOException {
+    int ordinal = header & ~ProofTreeWriter.FAILS;
+    if (ordinal >= KINDS.length) {
+      throw new IOException("unknown proof node kind " + ordinal);
+    }
+    return KINDS[ordinal];
+  }
+
+  private TypeId readType() throws IOException {
+    String name = readString();
+    return name == null ? null : typeScope.of(name);
+  }
+
+  private String readString() throws IOException {
+    int ref = readVarint();
+    if (ref == ProofTreeWriter.NULL_REF) {
+      return null;
+    } else if (ref != ProofTreeWriter.NEW_REF) {
+      int index = ref - ProofTreeWriter.FIRST_REF;
+      if (index >= dictionary.size()) {
+        throw new IOException("undefined string " + index);
+      }
+      return dictionary.get(index);
+    }
+
+    int length = readVarint();
+    if (length < 0) {
+      throw new IOException("bad string length " + length);
+    }
+    // read what is there rather than allocating the length up front, so a
+    // corrupt length cannot allocate more than the stream holds
+    byte[] bytes = in.readNBytes(length);
+    if (bytes.length < length) {
+      throw new EOFException();
+    }
+    String value = new String(bytes, StandardCharsets.UTF_8);
+    dictionary.add(value);
+    return value;
+  }
+
+  private int readVarint() throws IOException {
+    int value = 0;
+    for (int shift = 0; shift < 32; shift += 7) {
+      int b = readByte();
+      value |= (b & 0x7F) << shift;
+      if ((b & 0x80) == 0) {
+        return value;
+      }
+    }
+    throw new IOException("malformed varint");
+  }
+
+  private int readByte() throws IOException {
+    int b = in.read();
+    if (b < 0) {
+      throw new EOFException();
+    }
+    return b;
+  }
+}
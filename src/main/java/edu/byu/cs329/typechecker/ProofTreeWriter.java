@@ -0,0 +1,142 @@
+package edu.byu.cs329.typechecker;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Writes proof trees in a compact binary format.
+ *
+ * <p>A file is a header followed by the nodes in preorder:
+ *
+ * <pre>
+ * file   := MAGIC VERSION verdict:u8 nodes:varint node*
+ * node   := kind:u8 fields
+ * proof  := children:varint name:ref type:ref [number:varint for blocks and statements]
+ * lookup := name:ref type:ref
+ * compatible := left:ref right:ref
+ * </pre>
+ *
+ * <p>The high bit of the kind byte is set when the node fails. Names and type
+ * names share a dictionary that is built as the file is written: a ref of 0 is
+ * null, a ref of 1 is followed by a new string as a varint length and UTF-8 bytes,
+ * and a ref of i + 2 is the ith string defined so far. Each string is stored once
+ * however many display names it appears in, and a reader needs no lookahead.
+ */
+public class ProofTreeWriter implements Closeable {
+  static final byte[] MAGIC = {'P', 'R', 'F'};
+  static final int VERSION = 1;
+  static final int FAILS = 0x80;
+  static final int NULL_REF = 0;
+  static final int NEW_REF = 1;
+  static final int FIRST_REF = 2;
+
+  private final OutputStream out;
+  private final Map<String, Integer> dictionary = new HashMap<>();
+
+  /**
+   * Creates a writer on a stream.
+   *
+   * @param out where to write
+   */
+  public ProofTreeWriter(OutputStream out) {
+    this.out = new BufferedOutputStream(out);
+  }
+
+  /**
+   * Writes a proof and its verdict.
+   *
+   * @param proofTree the proof to write
+   * @throws IOException if the stream cannot be written
+   */
+  public void write(ProofTree proofTree) throws IOException {
+    writeHeader(proofTree.isTypeSafe(), proofTree.size());
+    for (int node = 0; node < proofTree.size(); ++node) {
+      writeNode(proofTree, node);
+    }
+    out.flush();
+  }
+
+  /**
+   * Writes a verdict with no proof.
+   *
+   * @param isTypeSafe the verdict to write
+   * @throws IOException if the stream cannot be written
+   */
+  public void writeVerdict(boolean isTypeSafe) throws IOException {
+    writeHeader(isTypeSafe, 0);
+    out.flush();
+  }
+
+  @Override
+  public void close() throws IOException {
+    out.close();
+  }
+
+  private void writeHeader(boolean isTypeSafe, int size) throws IOException {
+    dictionary.clear();
+    out.write(MAGIC);
+    out.write(VERSION);
+    out.write(isTypeSafe ? 1 : 0);
+    writeVarint(size);
+  }
+
+  private void writeNode(ProofTree proofTree, int node) throws IOException {
+    ProofTree.Kind kind = proofTree.getKind(node);
+    out.write(kind.ordinal() | (proofTree.passes(node) ? 0 : FAILS));
+    switch (kind) {
+      case LOOKUP:
+        writeRef(proofTree.getName(node));
+        writeRef(proofTree.getType(node));
+        break;
+      case COMPATIBLE:
+        writeRef(proofTree.getType(node));
+        writeRef(proofTree.getRightType(node));
+        break;
+      case ALL_VOID:
+      case NO_OBLIGATION:
+        break;
+      default:
+        writeVarint((int) proofTree.getChildren(node).count());
+        writeRef(proofTree.getName(node));
+        writeRef(proofTree.getType(node));
+        if (kind == ProofTree.Kind.BLOCK || kind == ProofTree.Kind.STATEMENT) {
+          writeVarint(proofTree.getNumber(node));
+        }
+        break;
+    }
+  }
+
+  private void writeRef(TypeId type) throws IOException {
+    writeRef(type == null ? null : type.getName());
+  }
+
+  private void writeRef(String value) throws IOException {
+    if (value == null) {
+      writeVarint(NULL_REF);
+      return;
+    }
+    Integer index = dictionary.get(value);
+    if (index != null) {
+      writeVarint(index + FIRST_REF);
+      return;
+    }
+    dictionary.put(value, dictionary.size());
+    byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+    writeVarint(NEW_REF);
+    writeVarint(bytes.length);
+    out.write(bytes);
+  }
+
+  private void writeVarint(int value) throws IOException {
+    while ((value & ~0x7F) != 0) {
+      out.write((value & 0x7F) | 0x80);
+      value >>>= 7;
+    }
+    out.write(value);
+  }
+}
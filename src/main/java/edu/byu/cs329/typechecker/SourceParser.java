@@ -0,0 +1,125 @@
+package edu.byu.cs329.typechecker;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.eclipse.jdt.core.JavaCore;
+import org.eclipse.jdt.core.dom.AST;
+import org.eclipse.jdt.core.dom.ASTParser;
+import org.eclipse.jdt.core.dom.CompilationUnit;
+import org.eclipse.jdt.core.dom.FileASTRequestor;
+
+/**
+ * Parses Java source for the checkers.
+ *
+ * <p>Each thread keeps one parser and reuses it. JDT resets a parser after every
+ * parse, so the kind and compiler options are set again before each one. Many
+ * files can be parsed with one call that reads and parses them in a single JDT
+ * batch, and the units it gives can be checked without parsing again with
+ * {@link BatchTypeChecker#check(Path, CompilationUnit, boolean)}.
+ */
+public class SourceParser {
+  private static final ThreadLocal<ASTParser> parsers =
+      ThreadLocal.withInitial(() -> ASTParser.newParser(AST.JLS3));
+
+  private final Map<String, String> compilerOptions = createCompilerOptions();
+  private IMetricsListener metrics = null;
+
+  public SourceParser() {
+
+  }
+
+  /**
+   * Reports the time spent parsing to a listener.
+   *
+   * @param metrics the listener or null to stop reporting
+   */
+  public void setMetricsListener(IMetricsListener metrics) {
+    this.metrics = metrics;
+  }
+
+  /**
+   * Parses source text.
+   *
+   * @param source the text of a compilation unit
+   * @return the parsed compilation unit
+   */
+  public CompilationUnit parse(String source) {
+    long start = metrics == null ? 0 : System.nanoTime();
+    ASTParser parser = getParser();
+    parser.setSource(source.toCharArray());
+    CompilationUnit compilationUnit = (CompilationUnit) parser.createAST(null);
+    completeParse(start);
+    return compilationUnit;
+  }
+
+  /**
+   * Reads and parses a file.
+   *
+   * @param file a Java source file in UTF-8
+   * @return the parsed compilation unit
+   * @throws IOException if the file cannot be read
+   */
+  public CompilationUnit parse(Path file) throws IOException {
+    return parse(new String(Files.readAllBytes(file), StandardCharsets.UTF_8));
+  }
+
+  /**
+   * Reads and parses many files in one batch on the calling thread.
+   *
+   * @param files Java source files in UTF-8
+   * @return the parsed compilation units in the order of files, with null for a
+   *     file that could not be read
+   */
+  public CompilationUnit[] parseAll(List<Path> files) {
+    final long start = metrics == null ? 0 : System.nanoTime();
+    String[] paths = new String[files.size()];
+    Map<String, Integer> indexes = new HashMap<>();
+    for (int i = 0; i < paths.length; ++i) {
+      paths[i] = files.get(i).toAbsolutePath().toString();
+      indexes.put(paths[i], i);
+    }
+    String[] encodings = new String[paths.length];
+    Arrays.fill(encodings, StandardCharsets.UTF_8.name());
+
+    CompilationUnit[] compilationUnits = new CompilationUnit[paths.length];
+    ASTParser parser = getParser();
+    parser.setEnvironment(new String[0], new String[0], null, false);
+    parser.createASTs(paths, encodings, new String[0], new FileASTRequestor() {
+      @Override
+      public void acceptAST(String sourceFilePath, CompilationUnit compilationUnit) {
+        Integer index = indexes.get(sourceFilePath);
+        if (index != null) {
+          compilationUnits[index] = compilationUnit;
+        }
+      }
+    }, null);
+    completeParse(start);
+    return compilationUnits;
+  }
+
+  private ASTParser getParser() {
+    ASTParser parser = parsers.get();
+    parser.setKind(ASTParser.K_COMPILATION_UNIT);
+    parser.setCompilerOptions(compilerOptions);
+    return parser;
+  }
+
+  private void completeParse(long start) {
+    if (metrics != null) {
+      metrics.phaseCompleted(IMetricsListener.Phase.PARSE, System.nanoTime() - start);
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private static Map<String, String> createCompilerOptions() {
+    Map<String, String> options = JavaCore.getOptions();
+    JavaCore.setComplianceOptions(JavaCore.VERSION_1_7, options);
+    return options;
+  }
+}
@@ -8,6 +8,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Deque;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import org.eclipse.jdt.core.dom.ASTNode;
@@ -17,6 +18,7 @@ import org.eclipse.jdt.core.dom.FieldDeclaration;
 import org.eclipse.jdt.core.dom.MethodDeclaration;
 import org.eclipse.jdt.core.dom.Modifier;
 import org.eclipse.jdt.core.dom.SingleVariableDeclaration;
+import org.eclipse.jdt.core.dom.Type;
 import org.eclipse.jdt.core.dom.TypeDeclaration;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -25,30 +27,50 @@ public class SymbolTableBuilder {
   static final Logger log = LoggerFactory.getLogger(SymbolTableBuilder.class);
 
   class Visitor extends ASTVisitor {
-    Map<String, String> typeMap = new HashMap<String, String>();
-    Map<String, List<SimpleImmutableEntry<String, String>>> parameterTypeMap =
-        new HashMap<String, List<SimpleImmutableEntry<String, String>>>();
+    Map<String, TypeId> typeMap = new HashMap<String, TypeId>();
+    Map<String, List<SimpleImmutableEntry<String, TypeId>>> parameterTypeMap =
+        new HashMap<String, List<SimpleImmutableEntry<String, TypeId>>>();
+    Map<String, ClassMembers> classMap = new HashMap<String, ClassMembers>();
+    Map<String, TypeDeclaration> classDeclarations = new LinkedHashMap<>();
+    TypeHierarchy typeHierarchy = TypeHierarchy.EMPTY;
+    TypeScope typeScope = null;
     String className = null;
+    ClassMembers members = null;
+    boolean isMultipleTypesAllowed = false;
+    List<Diagnostic> diagnostics = null;
 
     @Override
     public boolean visit(CompilationUnit node) {
+      nodeVisited(node);
       if (node.imports().size() > 0) {
-        ExceptionUtils.throwRuntimeException("no imports are allowed in the CompilationUnit");
+        reject((ASTNode) node.imports().get(0),
+            "no imports are allowed in the CompilationUnit");
       }
 
-      if (node.types().size() > 1) {
-        ExceptionUtils
-            .throwRuntimeException("only one type declaration allowed in the CompilationUnit");
+      if (!isMultipleTypesAllowed && node.types().size() > 1) {
+        reject((ASTNode) node.types().get(1),
+            "only one type declaration allowed in the CompilationUnit");
       }
       return true;
     }
 
     @Override
     public boolean visit(TypeDeclaration node) {
-      checkModifiers(node.getModifiers());
+      nodeVisited(node);
+      checkModifiers(node, node.getModifiers());
       className = AstNodePropertiesUtils.getName(node);
       if (node.getTypes().length != 0) {
-        ExceptionUtils.throwRuntimeException("no type declarations allowed in " + className);
+        reject(node.getTypes()[0], "no type declarations allowed in " + className);
+      }
+      if (classMap.containsKey(className)) {
+        reject(node, "class " + className + " is already declared");
+        return false;
+      }
+      members = new ClassMembers(className);
+      classMap.put(className, members);
+      classDeclarations.put(className, node);
+      if (node.getSuperclassType() != null && checkType(node, node.getSuperclassType())) {
+        members.setSuperclass(TypeCheckUtils.getSuperclass(node));
       }
 
       for (FieldDeclaration field : Arrays.asList(node.getFields())) {
@@ -63,65 +85,142 @@ public class SymbolTableBuilder {
 
     @Override
     public boolean visit(MethodDeclaration node) {
-      checkModifiers(node.getModifiers());
-      String type = TypeCheckUtils.getType(node);
+      nodeVisited(node);
+      checkModifiers(node, node.getModifiers());
+      if (!checkType(node, node.getReturnType2()) || !checkParameterTypes(node.parameters())) {
+        return false;
+      }
+      TypeId type = TypeCheckUtils.getTypeId(typeScope, node);
       String methodName = AstNodePropertiesUtils.getName(node);
       String name = TypeCheckUtils.buildName(className, methodName);
 
       // Not tested
       if (typeMap.containsKey(name)) {
-        ExceptionUtils.throwRuntimeException(
-            name + " already exists in symbol table with type " + typeMap.get(name));
+        reject(node, name + " already exists in symbol table with type " + typeMap.get(name));
+        return false;
       }
 
       typeMap.put(name, type);
-      List<SimpleImmutableEntry<String, String>> typeList = getParameterTypeList(node.parameters());
+      List<SimpleImmutableEntry<String, TypeId>> typeList = getParameterTypeList(node.parameters());
       parameterTypeMap.put(name, typeList);
+      members.addMethod(methodName, type, typeList);
       return false;
     }
 
     @Override
     public boolean visit(FieldDeclaration node) {
-      checkModifiers(node.getModifiers());
-      String type = TypeCheckUtils.getType(node);
+      nodeVisited(node);
+      checkModifiers(node, node.getModifiers());
+      if (!checkType(node, node.getType())) {
+        return false;
+      }
+      if (node.fragments().size() != 1) {
+        reject(node, "only one fragment supported");
+        return false;
+      }
+      TypeId type = TypeCheckUtils.getTypeId(typeScope, node);
       String fieldName = AstNodePropertiesUtils.getName(node);
       String name = TypeCheckUtils.buildName(className, fieldName);
 
       // Not tested
       if (typeMap.containsKey(name)) {
-        ExceptionUtils.throwRuntimeException(
-            name + " already exists in symbol table with type " + typeMap.get(name));
+        reject(node, name + " already exists in symbol table with type " + typeMap.get(name));
+        return false;
       }
 
       typeMap.put(name, type);
+      members.addField(fieldName, type);
       return false;
     }
 
-    private List<SimpleImmutableEntry<String, String>> getParameterTypeList(List<?> types) {
-      List<SimpleImmutableEntry<String, String>> typeList =
-          new ArrayList<SimpleImmutableEntry<String, String>>();
+    /**
+     * Rejects each class that extends itself, directly or indirectly, and builds
+     * the hierarchy from the rest.
+     */
+    private void checkHierarchy() {
+      for (Map.Entry<String, TypeDeclaration> entry : classDeclarations.entrySet()) {
+        if (TypeHierarchy.isCyclic(classMap, entry.getKey())) {
+          reject(entry.getValue().getSuperclassType(),
+              "cyclic inheritance involving " + entry.getKey());
+          classMap.get(entry.getKey()).setSuperclass(null);
+        }
+      }
+      typeHierarchy = TypeHierarchy.of(classMap, typeScope);
+    }
+
+    private List<SimpleImmutableEntry<String, TypeId>> getParameterTypeList(List<?> types) {
+      List<SimpleImmutableEntry<String, TypeId>> typeList =
+          new ArrayList<SimpleImmutableEntry<String, TypeId>>();
       for (Object declaration : types) {
         String name = AstNodePropertiesUtils.getName((SingleVariableDeclaration) declaration);
-        String type = TypeCheckUtils.getType((SingleVariableDeclaration) declaration);
-        typeList.add(new SimpleImmutableEntry<String, String>(name, type));
+        TypeId type =
+            TypeCheckUtils.getTypeId(typeScope, (SingleVariableDeclaration) declaration);
+        typeList.add(new SimpleImmutableEntry<String, TypeId>(name, type));
       }
       return typeList;
     }
 
-    private void checkModifiers(int modifiers) {
+    private void nodeVisited(ASTNode node) {
+      if (metrics != null) {
+        metrics.nodeVisited(node.getNodeType());
+      }
+    }
+
+    private void checkModifiers(ASTNode node, int modifiers) {
       int mask = ~(Modifier.PRIVATE | Modifier.PUBLIC | Modifier.PROTECTED);
       if ((modifiers & mask) != 0) {
-        ExceptionUtils.throwRuntimeException(
-            "only private, public, and protected are supported as modifiers");
+        reject(node, "only private, public, and protected are supported as modifiers");
+      }
+    }
+
+    private boolean checkType(ASTNode node, Type type) {
+      String reason = TypeCheckUtils.getUnsupportedReason(type);
+      if (reason != null) {
+        reject(type == null ? node : type, reason);
+        return false;
       }
+      return true;
+    }
+
+    private boolean checkParameterTypes(List<?> parameters) {
+      boolean isSupported = true;
+      for (Object parameter : parameters) {
+        SingleVariableDeclaration declaration = (SingleVariableDeclaration) parameter;
+        isSupported = checkType(declaration, declaration.getType()) && isSupported;
+      }
+      return isSupported;
+    }
+
+    /**
+     * Reports a construct that is not supported.
+     * 
+     * <p>Throws unless the visitor is collecting diagnostics, in which case the
+     * caller leaves the construct out of the table and goes on.
+     */
+    private void reject(ASTNode node, String message) {
+      if (diagnostics == null) {
+        ExceptionUtils.throwRuntimeException(message);
+      }
+      diagnostics.add(Diagnostic.of(node, message));
     }
 
   }
 
+  IMetricsListener metrics = null;
+
   public SymbolTableBuilder() {
     
   }
 
+  /**
+   * Reports what later builds do to a listener.
+   * 
+   * @param metrics the listener or null to stop reporting
+   */
+  public void setMetricsListener(IMetricsListener metrics) {
+    this.metrics = metrics;
+  }
+
   /**
    * Creates a symbol table for the AST.
    * 
@@ -132,33 +231,73 @@ public class SymbolTableBuilder {
    * @return the symbol table for the CompilationUnit
    */
   public ISymbolTable getSymbolTable(ASTNode node) {
-    Visitor visitor = new Visitor();
-    node.accept(visitor);
-    Deque<Map<String, String>> typeMap = new ArrayDeque<Map<String, String>>();
-    typeMap.push(visitor.typeMap);
+    Visitor visitor = build(node);
+    return createSymbolTable(visitor.typeMap, visitor.parameterTypeMap, visitor.classMap,
+        visitor.typeHierarchy, visitor.typeScope);
+  }
+
+  private static ISymbolTable createSymbolTable(Map<String, TypeId> classTypeMap,
+      Map<String, List<SimpleImmutableEntry<String, TypeId>>> parameterTypeMap,
+      Map<String, ClassMembers> classMap, TypeHierarchy typeHierarchy, TypeScope typeScope) {
+    Deque<Map<String, TypeId>> typeMap = new ArrayDeque<Map<String, TypeId>>();
+    typeMap.push(classTypeMap);
 
     return new ISymbolTable() {
       @Override
       public String getType(String name) {
-        for (Map<String, String> map : typeMap) {
-          if (map.containsKey(name)) {
-            return map.get(name);
+        return getTypeId(name).getName();
+      }
+
+      @Override
+      public TypeId getTypeId(String name) {
+        for (Map<String, TypeId> map : typeMap) {
+          TypeId type = map.get(name);
+          if (type != null) {
+            return type;
           }
         }
-        return TypeCheckTypes.ERROR;
+        return TypeId.ERROR;
       }
 
       @Override
       public List<SimpleImmutableEntry<String, String>> getParameterTypeList(String name) {
-        if (visitor.parameterTypeMap.containsKey(name)) {
-          return visitor.parameterTypeMap.get(name);
-        }
-        return null;
+        return getTypeNameList(getParameterTypeIdList(name));
+      }
+
+      @Override
+      public List<SimpleImmutableEntry<String, TypeId>> getParameterTypeIdList(String name) {
+        return parameterTypeMap.get(name);
+      }
+
+      @Override
+      public List<SimpleImmutableEntry<String, TypeId>> getParameterTypeIdList(String className,
+          String methodName) {
+        return ClassMembers.getParameterTypes(classMap, className, methodName);
+      }
+
+      @Override
+      public TypeId getFieldTypeId(String className, String fieldName) {
+        return ClassMembers.getFieldType(classMap, className, fieldName);
+      }
+
+      @Override
+      public TypeId getMethodTypeId(String className, String methodName) {
+        return ClassMembers.getMethodType(classMap, className, methodName);
+      }
+
+      @Override
+      public TypeScope getTypeScope() {
+        return typeScope;
+      }
+
+      @Override
+      public TypeHierarchy getTypeHierarchy() {
+        return typeHierarchy;
       }
 
       @Override
       public void pushScope() {
-        typeMap.push(new HashMap<String, String>());
+        typeMap.push(new HashMap<String, TypeId>());
       }
 
       @Override
@@ -168,14 +307,160 @@ public class SymbolTableBuilder {
 
       @Override
       public void addLocal(String name, String type) {
-        String existingType = getType(name);
-        if (existingType.equals(TypeCheckTypes.ERROR)) {
+        addLocal(name, typeScope.of(type));
+      }
+
+      @Override
+      public void addLocal(String name, TypeId type) {
+        TypeId existingType = getTypeId(name);
+        if (TypeCheckTypes.isError(existingType)) {
           typeMap.peek().put(name, type);
         } else {
           ExceptionUtils.throwRuntimeException(
               name + " already exists in symbol table with type " + existingType);
         }
       }
+
+      @Override
+      public ISymbolTable forkClassScope() {
+        return createSymbolTable(classTypeMap, parameterTypeMap, classMap, typeHierarchy,
+            typeScope);
+      }
     };
   }
+
+  /**
+   * Creates a symbol table for the AST that keeps locals in flat arrays.
+   * 
+   * <p>Behaves as {@link #getSymbolTable(ASTNode)} but scopes are marks into
+   * one array of locals rather than a stack of maps.
+   * 
+   * @requires node instanceof CompilationUnit
+   * @requires node is the AST for a supported program
+   * 
+   * @param node is a CompilationUnit
+   * @return the symbol table for the CompilationUnit
+   */
+  public ISymbolTable getFlatSymbolTable(ASTNode node) {
+    Visitor visitor = build(node);
+    return new FlatSymbolTable(visitor.typeMap, visitor.parameterTypeMap, visitor.classMap,
+        visitor.typeHierarchy, visitor.typeScope);
+  }
+
+  /**
+   * Creates an immutable symbol table for the AST.
+   *
+   * <p>Adding a local or a scope gives a new table that shares what it can with
+   * the old one, so the tables for many program points can be kept at once. Use
+   * {@link PersistentSymbolTable#toSymbolTable()} to type check with it.
+   *
+   * @requires node instanceof CompilationUnit
+   * @requires node is the AST for a supported program
+   *
+   * @param node is a CompilationUnit
+   * @return the symbol table with no locals for the CompilationUnit
+   */
+  public PersistentSymbolTable getPersistentSymbolTable(ASTNode node) {
+    Visitor visitor = build(node);
+    return new PersistentSymbolTable(visitor.typeMap, visitor.parameterTypeMap,
+        visitor.classMap, visitor.typeHierarchy, visitor.typeScope);
+  }
+
+  /**
+   * Creates a symbol table for the AST, recording what is not supported rather
+   * than throwing.
+   * 
+   * <p>Each construct that {@link #getSymbolTable(ASTNode)} would reject is added
+   * to diagnostics. A class or member that cannot be entered is left out and the
+   * rest of the program is still entered, so the table is partial when any
+   * diagnostic is added. Locals are kept as in {@link #getFlatSymbolTable(ASTNode)}.
+   * 
+   * @requires node instanceof CompilationUnit
+   * 
+   * @param node is a CompilationUnit
+   * @param diagnostics a list to hold the unsupported constructs in the order found
+   * @return the symbol table for the supported declarations
+   */
+  public ISymbolTable getValidatedSymbolTable(ASTNode node, List<Diagnostic> diagnostics) {
+    Visitor visitor = build(node, false, diagnostics, new TypeScope());
+    return new FlatSymbolTable(visitor.typeMap, visitor.parameterTypeMap, visitor.classMap,
+        visitor.typeHierarchy, visitor.typeScope);
+  }
+
+  /**
+   * Adds the classes of the AST to a table shared with other compilation units.
+   * 
+   * <p>Unlike {@link #getSymbolTable(ASTNode)} the compilation unit may declare
+   * more than one class. Many threads may add to the same table at once.
+   * 
+   * @requires node instanceof CompilationUnit
+   * @requires node is the AST for a supported program
+   * @requires no class in node is already in globalSymbolTable
+   * @requires no class in node extends itself through the classes in globalSymbolTable
+   * 
+   * @param node is a CompilationUnit
+   * @param globalSymbolTable the table to add the classes to
+   */
+  public void addToGlobalSymbolTable(ASTNode node, GlobalSymbolTable globalSymbolTable) {
+    Visitor visitor = build(node, true, null, globalSymbolTable.getTypeScope());
+    globalSymbolTable.addClasses(visitor.classMap, visitor.typeMap, visitor.parameterTypeMap);
+  }
+
+  /**
+   * Adds the classes of the AST to a shared table only if every construct in it
+   * is supported, recording what is not supported rather than throwing.
+   * 
+   * <p>Each construct that {@link #addToGlobalSymbolTable(ASTNode, GlobalSymbolTable)}
+   * would reject is added to diagnostics, and when any is added no class of the
+   * compilation unit is added to the table.
+   * 
+   * @requires node instanceof CompilationUnit
+   * @requires no class in node is already in globalSymbolTable
+   * @requires no class in node extends itself through the classes in globalSymbolTable
+   * 
+   * @param node is a CompilationUnit
+   * @param globalSymbolTable the table to add the classes to
+   * @param diagnostics a list to hold the unsupported constructs in the order found
+   */
+  public void addToGlobalSymbolTable(ASTNode node, GlobalSymbolTable globalSymbolTable,
+      List<Diagnostic> diagnostics) {
+    int diagnosticCount = diagnostics.size();
+    Visitor visitor = build(node, true, diagnostics, globalSymbolTable.getTypeScope());
+    if (diagnostics.size() == diagnosticCount) {
+      globalSymbolTable.addClasses(visitor.classMap, visitor.typeMap, visitor.parameterTypeMap);
+    }
+  }
+
+  private Visitor build(ASTNode node) {
+    return build(node, false, null, new TypeScope());
+  }
+
+  private Visitor build(ASTNode node, boolean isMultipleTypesAllowed,
+      List<Diagnostic> diagnostics, TypeScope typeScope) {
+    long start = metrics == null ? 0 : System.nanoTime();
+    Visitor visitor = new Visitor();
+    visitor.isMultipleTypesAllowed = isMultipleTypesAllowed;
+    visitor.diagnostics = diagnostics;
+    visitor.typeScope = typeScope;
+    node.accept(visitor);
+    visitor.checkHierarchy();
+    if (metrics != null) {
+      metrics.phaseCompleted(IMetricsListener.Phase.SYMBOL_TABLE, System.nanoTime() - start);
+    }
+    return visitor;
+  }
+
+  static List<SimpleImmutableEntry<String, String>> getTypeNameList(
+      List<SimpleImmutableEntry<String, TypeId>> typeIdList) {
+    if (typeIdList == null) {
+      return null;
+    }
+    List<SimpleImmutableEntry<String, String>> typeList =
+        new ArrayList<SimpleImmutableEntry<String, String>>(typeIdList.size());
+    for (SimpleImmutableEntry<String, TypeId> entry : typeIdList) {
+      typeList.add(new SimpleImmutableEntry<String, String>(
+          entry.getKey(), entry.getValue().getName()));
+    }
+    return typeList;
+  }
 }
@@ -1,14 +1,16 @@
 package edu.byu.cs329.typechecker;
 
-import static org.junit.jupiter.api.Assertions.assertTrue;
-
 import edu.byu.cs329.utils.AstNodePropertiesUtils;
 import java.util.AbstractMap.SimpleImmutableEntry;
 import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.Deque;
 import java.util.List;
+import java.util.TreeSet;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 import org.eclipse.jdt.core.dom.ASTNode;
 import org.eclipse.jdt.core.dom.ASTVisitor;
 import org.eclipse.jdt.core.dom.Block;
@@ -19,13 +21,9 @@ import org.eclipse.jdt.core.dom.MethodDeclaration;
 import org.eclipse.jdt.core.dom.NullLiteral;
 import org.eclipse.jdt.core.dom.NumberLiteral;
 import org.eclipse.jdt.core.dom.SimpleName;
-import org.eclipse.jdt.core.dom.Statement;
 import org.eclipse.jdt.core.dom.TypeDeclaration;
 import org.eclipse.jdt.core.dom.VariableDeclarationStatement;
-import org.junit.jupiter.api.Assertions;
-import org.junit.jupiter.api.DynamicContainer;
 import org.junit.jupiter.api.DynamicNode;
-import org.junit.jupiter.api.DynamicTest;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -34,212 +32,356 @@ public class TypeCheckBuilder {
 
   class Visitor extends ASTVisitor {
     ISymbolTable symbolTable = null;
+    TypeHierarchy typeHierarchy = null;
+    TypeScope typeScope = null;
     String className = null;
-    Deque<List<DynamicNode>> typeCheckStack = null;
-    Deque<String> typeStack = null;
+    TypeId classType = null;
+    Deque<TypeId> typeStack = null;
     int blockCounter = 0;
     int statementCounter = 0;
-
+    ProofTree proofTree = null;
+    int scopeDepth = 0;
+    boolean isFailFast = false;
+    Diagnostic failure = null;
+    List<Diagnostic> diagnostics = null;
+    IMetricsListener metrics = TypeCheckBuilder.this.metrics;
+    NodeTypes nodeTypes = TypeCheckBuilder.this.nodeTypes;
+
+    /**
+     * Creates a visitor that computes the resulting types.
+     * 
+     * <p>The proof is recorded only if {@link #proofTree} is set before the visit.
+     * 
+     * @param symbolTable the environment for the type checks
+     */
     public Visitor(ISymbolTable symbolTable) {
       this.symbolTable = symbolTable;
-      typeCheckStack = new ArrayDeque<>();
-      pushTypeCheck(new ArrayList<>());
+      this.typeHierarchy = symbolTable.getTypeHierarchy();
+      this.typeScope = symbolTable.getTypeScope();
       typeStack = new ArrayDeque<>();
     }
 
     @Override
     public boolean visit(CompilationUnit node) {
-      pushTypeCheck(new ArrayList<>());
-
-      List<String> types = new ArrayList<String>();
-      for (Object declaration : node.types()) {
-        ((TypeDeclaration) declaration).accept(this);
-        types.add(popType());
-      }
-
-      DynamicTest test = generateAllVoidTestAndPushResultingType(types);
-      peekTypeCheck().add(test);
+      check(node);
       return false;
     }
 
     @Override
     public boolean visit(TypeDeclaration node) {
-      pushTypeCheck(new ArrayList<>());
-      className = AstNodePropertiesUtils.getName(node);
-
-      List<String> types = new ArrayList<String>();
-      for (MethodDeclaration method : Arrays.asList(node.getMethods())) {
-        method.accept(Visitor.this);
-        types.add(popType());
-      }
-
-      DynamicTest test = generateAllVoidTestAndPushResultingType(types);
-      peekTypeCheck().add(test);
+      check(node);
       return false;
     }
 
     @Override
     public boolean visit(MethodDeclaration node) {
-      resetCounters();
-      pushTypeCheck(new ArrayList<>());
-
-      String name = TypeCheckUtils.buildName(className, AstNodePropertiesUtils.getName(node));
-
-      List<SimpleImmutableEntry<String, String>> typeList = symbolTable.getParameterTypeList(name);
-      symbolTable.pushScope();
-      for (SimpleImmutableEntry<String, String> entry : typeList) {
-        symbolTable.addLocal(entry.getKey(), entry.getValue());
-      }
-
-      symbolTable.addLocal("this", className);
-      String type = symbolTable.getType(name);
-      symbolTable.addLocal("return", type);
-
-      node.getBody().accept(this);
-
-      type = popType();
-      DynamicTest test = generateAllVoidTestAndPushResultingType(Arrays.asList(type));
-      peekTypeCheck().add(test);
+      check(node);
       return false;
     }
 
     @Override
     public boolean visit(Block node) {
-      pushTypeCheck(new ArrayList<>());
-      symbolTable.pushScope();
-
-      List<String> typeList = new ArrayList<String>();
-      for (Object statement : node.statements()) {
-        ((Statement) statement).accept(this);
-        typeList.add(popType());
-      }
-
-      DynamicTest test = generateAllVoidTestAndPushResultingType(typeList);
-      peekTypeCheck().add(test);
+      check(node);
       return false;
     }
 
     @Override
     public boolean visit(VariableDeclarationStatement node) {
-      pushTypeCheck(new ArrayList<>());
-      String name = AstNodePropertiesUtils.getName(node);
-      String type = TypeCheckUtils.getType(node);
-      symbolTable.addLocal(name, type);
-      AstNodePropertiesUtils.getSimpleName(node).accept(this);
-      type = popType();
-
-      Expression initializer = AstNodePropertiesUtils.getInitializer(node);
-      if (initializer != null) {
-        initializer.accept(this);
-        String rightType = popType();
-        DynamicTest test = generateTypeCompatibleTestAndPushResultingType(type, rightType);
-        peekTypeCheck().add(test);
-        type = popType();
-      }
-
-      if (!TypeCheckTypes.isError(type)) {
-        type = TypeCheckTypes.VOID;
-      }
-
-      pushType(type);
+      check(node);
       return false;
     }
 
     @Override
     public boolean visit(SimpleName node) {
-      pushTypeCheck(new ArrayList<>());
-      String name = AstNodePropertiesUtils.getName(node);
-      String type = symbolTable.getType(name);
-      generateLookupTestAndAddToObligations(name, type);
-      pushType(type);
+      check(node);
       return false;
     }
 
     @Override
     public boolean visit(BooleanLiteral node) {
-      pushTypeCheck(new ArrayList<>());
-      String name = node.toString();
-      String type = TypeCheckTypes.BOOL;
-      generateLookupTestAndAddToObligations(name, type);
-      pushType(type);
+      check(node);
       return false;
     }
 
     @Override
     public boolean visit(NumberLiteral node) {
-      pushTypeCheck(new ArrayList<>());
-      String name = node.getToken();
-      String type = TypeCheckTypes.INT;
-      generateLookupTestAndAddToObligations(name, type);
-      pushType(type);
+      check(node);
       return false;
     }
 
     @Override
     public boolean visit(NullLiteral node) {
-      pushTypeCheck(new ArrayList<>());
-      String name = node.toString();
-      String type = TypeCheckTypes.NULL;
-      generateLookupTestAndAddToObligations(name, type);
-      pushType(type);
+      check(node);
       return false;
     }
 
-    @Override
-    public void endVisit(CompilationUnit node) {
-      String name = "CompilationUnit ";
-      generateProofAndAddToObligations(name);
+    /**
+     * Checks a node and its children, leaving the type of the node on the type stack.
+     */
+    private void check(ASTNode node) {
+      if (isIterative) {
+        checkIteratively(node);
+        return;
+      }
+      Frame frame = enter(node);
+      while (hasNextChild(frame)) {
+        frame.nextChild().accept(this);
+        leave(frame, popType());
+      }
+      exit(frame);
+    }
+
+    /**
+     * Checks a node and its children with a stack of frames on the heap rather
+     * than by recursion, so nesting is not limited by the thread's stack.
+     * 
+     * <p>Children of a kind the checker does not support are still visited with
+     * accept, as in the recursive check.
+     */
+    private void checkIteratively(ASTNode node) {
+      Deque<Frame> frames = new ArrayDeque<>();
+      frames.push(enter(node));
+      while (!frames.isEmpty()) {
+        Frame frame = frames.peek();
+        if (hasNextChild(frame)) {
+          ASTNode child = frame.nextChild();
+          if (isSupported(child)) {
+            frames.push(enter(child));
+          } else {
+            child.accept(this);
+            leave(frame, popType());
+          }
+          continue;
+        }
+        frames.pop();
+        exit(frame);
+        if (!frames.isEmpty()) {
+          leave(frames.peek(), popType());
+        }
+      }
     }
 
-    @Override
-    public void endVisit(TypeDeclaration node) {
-      String name = "class " + className;
-      generateProofAndAddToObligations(name);
+    private boolean isSupported(ASTNode node) {
+      switch (node.getNodeType()) {
+        case ASTNode.COMPILATION_UNIT:
+        case ASTNode.TYPE_DECLARATION:
+        case ASTNode.METHOD_DECLARATION:
+        case ASTNode.BLOCK:
+        case ASTNode.VARIABLE_DECLARATION_STATEMENT:
+        case ASTNode.SIMPLE_NAME:
+        case ASTNode.BOOLEAN_LITERAL:
+        case ASTNode.NUMBER_LITERAL:
+        case ASTNode.NULL_LITERAL:
+          return true;
+        default:
+          return false;
+      }
     }
 
-    @Override
-    public void endVisit(MethodDeclaration node) {
-      symbolTable.popScope();
-      String name =
-          TypeCheckUtils.buildName("method " + className, AstNodePropertiesUtils.getName(node));
-      generateProofAndAddToObligations(name);
+    private boolean hasNextChild(Frame frame) {
+      return frame.hasNextChild() && !isStopped();
+    }
+
+    /**
+     * Starts the check of a node.
+     * 
+     * @requires isSupported(node)
+     * 
+     * @return the frame holding the children to check before the node is finished
+     */
+    private Frame enter(ASTNode node) {
+      openProof(node);
+      switch (node.getNodeType()) {
+        case ASTNode.COMPILATION_UNIT:
+          return new Frame(node, ((CompilationUnit) node).types());
+        case ASTNode.TYPE_DECLARATION:
+          return enter((TypeDeclaration) node);
+        case ASTNode.METHOD_DECLARATION:
+          return enter((MethodDeclaration) node);
+        case ASTNode.BLOCK:
+          pushScope();
+          return new Frame(node, ((Block) node).statements());
+        case ASTNode.VARIABLE_DECLARATION_STATEMENT:
+          return enter((VariableDeclarationStatement) node);
+        case ASTNode.SIMPLE_NAME:
+          enter((SimpleName) node);
+          return new Frame(node, Collections.emptyList());
+        case ASTNode.BOOLEAN_LITERAL:
+          enterLiteral(getLiteralName((BooleanLiteral) node), TypeId.BOOL);
+          return new Frame(node, Collections.emptyList());
+        case ASTNode.NUMBER_LITERAL:
+          enterLiteral(((NumberLiteral) node).getToken(), TypeId.INT);
+          return new Frame(node, Collections.emptyList());
+        default:
+          enterLiteral(getLiteralName((NullLiteral) node), TypeId.NULL);
+          return new Frame(node, Collections.emptyList());
+      }
     }
 
-    @Override
-    public void endVisit(Block node) {
-      symbolTable.popScope();
-      String name = generateBlockName();
-      generateProofAndAddToObligations(name);
+    private Frame enter(TypeDeclaration node) {
+      className = AstNodePropertiesUtils.getName(node);
+      classType = typeScope.of(className);
+      ISymbolTable methodTable = pool == null ? null : fork(symbolTable);
+      if (methodTable == null) {
+        return new Frame(node, Arrays.asList(node.getMethods()));
+      }
+      Frame frame = new Frame(node, Collections.emptyList());
+      forkMethods(node.getMethods(), methodTable, frame.types);
+      return frame;
     }
 
-    @Override
-    public void endVisit(VariableDeclarationStatement node) {
-      String name = generateStatementName();
-      generateProofAndAddToObligations(name);
+    private Frame enter(MethodDeclaration node) {
+      resetCounters();
+      String name = AstNodePropertiesUtils.getName(node);
+
+      List<SimpleImmutableEntry<String, TypeId>> typeList =
+          symbolTable.getParameterTypeIdList(className, name);
+      pushScope();
+      for (SimpleImmutableEntry<String, TypeId> entry : typeList) {
+        symbolTable.addLocal(entry.getKey(), entry.getValue());
+      }
+
+      symbolTable.addLocal("this", classType);
+      TypeId type = lookupMethod(name);
+      symbolTable.addLocal("return", type);
+      return new Frame(node, Collections.singletonList(node.getBody()));
     }
 
-    @Override
-    public void endVisit(SimpleName node) {
+    private Frame enter(VariableDeclarationStatement node) {
       String name = AstNodePropertiesUtils.getName(node);
-      generateProofAndAddToObligations(name);
+      TypeId type = TypeCheckUtils.getTypeId(typeScope, node);
+      symbolTable.addLocal(name, type);
+      Expression initializer = AstNodePropertiesUtils.getInitializer(node);
+      SimpleName simpleName = AstNodePropertiesUtils.getSimpleName(node);
+      return new Frame(node, initializer == null
+          ? Collections.singletonList(simpleName) : Arrays.asList(simpleName, initializer));
     }
 
-    @Override
-    public void endVisit(BooleanLiteral node) {
-      String name = node.toString();
-      generateProofAndAddToObligations(name);
+    private void enter(SimpleName node) {
+      String name = AstNodePropertiesUtils.getName(node);
+      TypeId type = lookup(name);
+      addLookup(name, type);
+      if (TypeCheckTypes.isError(type) && isReporting()) {
+        reportFailure(Diagnostic.of(node, ProofTree.formatLookup(name, type)));
+      }
+      pushType(type);
     }
 
-    @Override
-    public void endVisit(NumberLiteral node) {
-      String name = node.getToken();
-      generateProofAndAddToObligations(name);
+    private void enterLiteral(String name, TypeId type) {
+      addLookup(name, type);
+      pushType(type);
     }
 
-    @Override
-    public void endVisit(NullLiteral node) {
-      String name = node.toString();
-      generateProofAndAddToObligations(name);
+    /**
+     * Takes the type of a child that has been checked.
+     */
+    private void leave(Frame frame, TypeId type) {
+      if (frame.node.getNodeType() != ASTNode.VARIABLE_DECLARATION_STATEMENT) {
+        frame.types.add(type);
+        return;
+      }
+      if (frame.types.isEmpty()) {
+        frame.types.add(type);
+        return;
+      }
+      TypeId leftType = frame.types.get(0);
+      addCompatibleAndPushResultingType(leftType, type);
+      frame.types.set(0, popType());
+      if (TypeCheckTypes.isError(frame.types.get(0)) && isReporting()) {
+        reportFailure(Diagnostic.of(frame.node, ProofTree.formatCompatible(leftType, type)));
+      }
+    }
+
+    /**
+     * Finishes the check of a node once its children are checked.
+     */
+    private void exit(Frame frame) {
+      ASTNode node = frame.node;
+      switch (node.getNodeType()) {
+        case ASTNode.COMPILATION_UNIT:
+          addAllVoidAndPushResultingType(frame.types);
+          closeProof(node, ProofTree.Kind.COMPILATION_UNIT, null, 0);
+          break;
+        case ASTNode.TYPE_DECLARATION:
+          addAllVoidAndPushResultingType(frame.types);
+          closeProof(node, ProofTree.Kind.CLASS, className, 0);
+          break;
+        case ASTNode.METHOD_DECLARATION:
+          addAllVoidAndPushResultingType(frame.types);
+          popScope();
+          closeProof(node, ProofTree.Kind.METHOD,
+              AstNodePropertiesUtils.getName((MethodDeclaration) node), 0);
+          break;
+        case ASTNode.BLOCK:
+          addAllVoidAndPushResultingType(frame.types);
+          popScope();
+          closeProof(node, ProofTree.Kind.BLOCK, null, blockCounter++);
+          break;
+        case ASTNode.VARIABLE_DECLARATION_STATEMENT:
+          TypeId type = frame.types.get(0);
+          pushType(TypeCheckTypes.isError(type) ? type : TypeId.VOID);
+          closeProof(node, ProofTree.Kind.STATEMENT, null, statementCounter++);
+          break;
+        case ASTNode.SIMPLE_NAME:
+          closeProof(node, ProofTree.Kind.NAME, AstNodePropertiesUtils.getName((SimpleName) node),
+              0);
+          break;
+        case ASTNode.BOOLEAN_LITERAL:
+          closeProof(node, ProofTree.Kind.LITERAL, getLiteralName((BooleanLiteral) node), 0);
+          break;
+        case ASTNode.NUMBER_LITERAL:
+          closeProof(node, ProofTree.Kind.LITERAL, ((NumberLiteral) node).getToken(), 0);
+          break;
+        default:
+          closeProof(node, ProofTree.Kind.LITERAL, getLiteralName((NullLiteral) node), 0);
+          break;
+      }
+    }
+
+    private String getLiteralName(BooleanLiteral node) {
+      return Boolean.toString(node.booleanValue());
+    }
+
+    private String getLiteralName(NullLiteral node) {
+      return "null";
+    }
+
+    private void forkMethods(MethodDeclaration[] methods, ISymbolTable firstTable,
+        List<TypeId> types) {
+      List<ForkJoinTask<Visitor>> tasks = new ArrayList<>(methods.length);
+      for (MethodDeclaration method : methods) {
+        ISymbolTable methodTable = tasks.isEmpty() ? firstTable : symbolTable.forkClassScope();
+        Visitor methodVisitor = new Visitor(methodTable);
+        methodVisitor.className = className;
+        methodVisitor.classType = classType;
+        methodVisitor.isFailFast = isFailFast;
+        if (diagnostics != null) {
+          methodVisitor.diagnostics = new ArrayList<>();
+        }
+        if (proofTree != null) {
+          methodVisitor.proofTree = new ProofTree(typeScope);
+        }
+        tasks.add(pool.submit(() -> {
+          method.accept(methodVisitor);
+          return methodVisitor;
+        }));
+      }
+
+      for (int i = 0; i < tasks.size(); ++i) {
+        if (isStopped()) {
+          tasks.get(i).cancel(false);
+          continue;
+        }
+        Visitor methodVisitor = tasks.get(i).join();
+        failure = methodVisitor.failure;
+        if (diagnostics != null) {
+          diagnostics.addAll(methodVisitor.diagnostics);
+        }
+        types.add(methodVisitor.popType());
+        if (proofTree != null) {
+          proofTree.append(methodVisitor.proofTree);
+        }
+      }
     }
 
     private void resetCounters() {
@@ -247,131 +389,384 @@ public class TypeCheckBuilder {
       blockCounter = 0;
     }
 
-    private void generateLookupTestAndAddToObligations(String name, String type) {
-      String displayName = generateLookupDisplayName(name, type);
-      DynamicTest test = DynamicTest.dynamicTest(displayName,
-          () -> Assertions.assertNotEquals(TypeCheckTypes.ERROR, type));
-      peekTypeCheck().add(test);
+    private void pushScope() {
+      symbolTable.pushScope();
+      ++scopeDepth;
+      if (metrics != null) {
+        metrics.scopeEntered(scopeDepth);
+      }
     }
 
-    private void generateProofAndAddToObligations(String name) {
-      String type = peekType();
-      String displayName = generateProvesDisplayName(name, type);
-      List<DynamicNode> proofs = popTypeCheck();
-      addNoObligationIfEmpty(proofs);
-      DynamicContainer proof = DynamicContainer.dynamicContainer(displayName, proofs.stream());
-      List<DynamicNode> obligations = peekTypeCheck();
-      obligations.add(proof);
+    private void popScope() {
+      symbolTable.popScope();
+      --scopeDepth;
+    }
+
+    private TypeId lookup(String name) {
+      TypeId type = symbolTable.getTypeId(name);
+      if (metrics != null) {
+        metrics.lookup(!TypeCheckTypes.isError(type));
+      }
+      return type;
     }
 
-    private DynamicTest generateTypeCompatibleTestAndPushResultingType(String leftType,
-        String rightType) {
-      String displayName = leftType + " := " + rightType;
+    private TypeId lookupMethod(String name) {
+      TypeId type = symbolTable.getMethodTypeId(className, name);
+      if (metrics != null) {
+        metrics.lookup(!TypeCheckTypes.isError(type));
+      }
+      return type;
+    }
 
-      boolean isAssignmentCompatible = TypeCheckTypes.isAssignmentCompatible(leftType, rightType);
+    /**
+     * Returns true once a fail-fast check has found its failure, so the
+     * remaining siblings are not visited.
+     */
+    private boolean isStopped() {
+      return failure != null;
+    }
 
-      DynamicTest test =
-          DynamicTest.dynamicTest(displayName, () -> assertTrue(isAssignmentCompatible));
+    private boolean isReporting() {
+      return isFailFast || diagnostics != null;
+    }
 
-      String type = TypeCheckTypes.VOID;
+    private void reportFailure(Diagnostic diagnostic) {
+      if (isFailFast && failure == null) {
+        failure = diagnostic;
+      }
+      if (diagnostics != null) {
+        diagnostics.add(diagnostic);
+      }
+    }
+
+    private void addLookup(String name, TypeId type) {
+      if (proofTree != null) {
+        proofTree.addLookup(name, type);
+      }
+    }
+
+    private void closeProof(ASTNode node, ProofTree.Kind kind, String name, int number) {
+      if (nodeTypes != null) {
+        nodeTypes.put(node, peekType());
+      }
+      if (proofTree != null) {
+        proofTree.close(kind, name, number, peekType());
+      }
+    }
+
+    private void addCompatibleAndPushResultingType(TypeId leftType, TypeId rightType) {
+      boolean isAssignmentCompatible = typeHierarchy.isAssignmentCompatible(leftType, rightType);
+      if (proofTree != null) {
+        proofTree.addCompatible(leftType, rightType, isAssignmentCompatible);
+      }
+
+      TypeId type = TypeId.VOID;
       if (!isAssignmentCompatible) {
-        type = TypeCheckTypes.ERROR;
+        type = TypeId.ERROR;
       }
       pushType(type);
-      return test;
     }
 
-    private DynamicTest generateAllVoidTestAndPushResultingType(List<String> types) {
-      DynamicTest test = null;
-      String type = TypeCheckTypes.VOID;
+    private void addAllVoidAndPushResultingType(List<TypeId> types) {
+      TypeId type = TypeId.VOID;
 
       if (types.isEmpty()) {
-        test = generateNoObligation();
+        if (proofTree != null) {
+          proofTree.addNoObligation();
+        }
         pushType(type);
-        return test;
+        return;
+      }
+
+      boolean testValue = true;
+      for (TypeId t : types) {
+        testValue = testValue && TypeCheckTypes.isVoidType(t);
+      }
+
+      if (proofTree != null) {
+        proofTree.addAllVoid(testValue);
       }
 
-      String displayName = String.join(",", types) + " = " + TypeCheckTypes.VOID;
-      boolean testValue = types.stream().allMatch(t -> t.equals(TypeCheckTypes.VOID));
-      test = DynamicTest.dynamicTest(displayName, () -> assertTrue(testValue));
       if (!testValue) {
-        type = TypeCheckTypes.ERROR;
+        type = TypeId.ERROR;
       }
       pushType(type);
-      return test;
     }
 
-
-    private void addNoObligationIfEmpty(List<DynamicNode> proofs) {
-      if (proofs.size() > 0) {
-        return;
+    private void openProof(ASTNode node) {
+      if (metrics != null) {
+        metrics.nodeVisited(node.getNodeType());
+      }
+      if (proofTree != null) {
+        proofTree.open();
       }
-      proofs.add(generateNoObligation());
     }
 
-    private DynamicTest generateNoObligation() {
-      return DynamicTest.dynamicTest("true", () -> assertTrue(true));
+    private TypeId popType() {
+      return typeStack.pop();
     }
 
-    private String generateProvesDisplayName(String name, String type) {
-      return name + ":" + type;
+    private void pushType(TypeId type) {
+      typeStack.push(type);
     }
 
-    private String generateLookupDisplayName(String name, String type) {
-      return "E(" + name + ") = " + type;
+    private TypeId peekType() {
+      return typeStack.peek();
     }
 
-    private List<DynamicNode> popTypeCheck() {
-      return typeCheckStack.pop();
-    }
+  }
 
-    private void pushTypeCheck(List<DynamicNode> proof) {
-      typeCheckStack.push(proof);
-    }
 
-    private List<DynamicNode> peekTypeCheck() {
-      return typeCheckStack.peek();
-    }
+  /**
+   * A node being checked, the children still to check, and the types of those
+   * already checked.
+   * 
+   * <p>A variable declaration keeps one type: the declared type once its name is
+   * checked and the result of the compatibility judgment once its initializer is.
+   */
+  static class Frame {
+    final ASTNode node;
+    final List<?> children;
+    final List<TypeId> types = new ArrayList<>();
+    int next = 0;
 
-    private String popType() {
-      return typeStack.pop();
+    Frame(ASTNode node, List<?> children) {
+      this.node = node;
+      this.children = children;
     }
 
-    private void pushType(String type) {
-      typeStack.push(type);
+    boolean hasNextChild() {
+      return next < children.size();
     }
 
-    private String peekType() {
-      return typeStack.peek();
+    ASTNode nextChild() {
+      return (ASTNode) children.get(next++);
     }
+  }
 
-    private String generateBlockName() {
-      return "B" + blockCounter++;
+  /**
+   * Gives a table with the class-level declarations of another and its own locals.
+   * 
+   * @param symbolTable the table to fork
+   * @return the fork or null if symbolTable does not support forkClassScope
+   */
+  static ISymbolTable fork(ISymbolTable symbolTable) {
+    try {
+      return symbolTable.forkClassScope();
+    } catch (UnsupportedOperationException e) {
+      return null;
     }
+  }
 
-    private String generateStatementName() {
-      return "S" + statementCounter++;
-    }
+  ForkJoinPool pool = null;
+  IMetricsListener metrics = null;
+  NodeTypes nodeTypes = null;
+  boolean isIterative = false;
+
+  public TypeCheckBuilder() {
+
+  }
 
+  /**
+   * Creates a builder that checks the methods of a class in parallel.
+   * 
+   * <p>Each method is checked on the pool with its own local scopes over the
+   * shared class-level declarations, and the results are merged back in source
+   * order so the verdict and proof are the same as the sequential check. The
+   * methods of a symbol table that does not support forkClassScope are checked
+   * sequentially.
+   * 
+   * @param pool the pool on which to check methods
+   */
+  public TypeCheckBuilder(ForkJoinPool pool) {
+    this.pool = pool;
   }
 
+  /**
+   * Reports what later checks do to a listener.
+   * 
+   * @param metrics the listener or null to stop reporting
+   */
+  public void setMetricsListener(IMetricsListener metrics) {
+    this.metrics = metrics;
+  }
 
-  public TypeCheckBuilder() {
+  /**
+   * Checks with an explicit stack of frames on the heap instead of recursion.
+   * 
+   * <p>The verdict, proof, and everything else a check gives are the same either
+   * way, but nested blocks no longer use the thread's stack, so deeply nested
+   * programs can be checked on threads with small stacks. Parsing is still done
+   * by JDT and is not affected.
+   * 
+   * @param isIterative true to check without recursion
+   */
+  public void setIterative(boolean isIterative) {
+    this.isIterative = isIterative;
+  }
 
+  /**
+   * Records the type computed for each node that later checks visit.
+   * 
+   * <p>Every way of checking records: the verdict, proof, and diagnostics all
+   * come from the same traversal. A fail-fast check records only the nodes
+   * before its failure.
+   * 
+   * @param nodeTypes where to record the types or null to stop recording
+   */
+  public void setNodeTypes(NodeTypes nodeTypes) {
+    this.nodeTypes = nodeTypes;
   }
 
   /**
    * Returns true if static type safe with the checks.
    * 
+   * <p>The checks come from {@link #getProofTree(ISymbolTable, ASTNode)}, so a
+   * display name is only formatted when its test or container is created, and
+   * the tests under a container only when its children are consumed.
+   * 
    * @param symbolTable the environment for the type checks
    * @param node the ASTNode for the compilation unit
    * @param tests a container to hold the tests
    * @return true iff the compilation is static type safe
    */
   public boolean getTypeChecker(ISymbolTable symbolTable, ASTNode node, List<DynamicNode> tests) {
+    ProofTree proofTree = getProofTree(symbolTable, node);
+    tests.addAll(proofTree.toDynamicNodes());
+    return proofTree.isTypeSafe();
+  }
+
+  /**
+   * Returns true if static type safe with the checks, building the tests lazily.
+   * 
+   * <p>The program is checked once into a {@link ProofTree}, which keeps each
+   * node in a few slots of flat arrays rather than as a test or container. The
+   * tests are made from the tree as they are consumed: the children of a
+   * container become tests only when its stream of children is consumed, and no
+   * part of the program is checked again, so the symbol table is not used after
+   * this returns. The tests and verdict are those of
+   * {@link #getTypeChecker(ISymbolTable, ASTNode, List)}, which is built the same way.
+   * 
+   * @param symbolTable the environment for the type checks
+   * @param node the ASTNode for the compilation unit
+   * @param tests a container to hold the tests
+   * @return true iff the compilation is static type safe
+   */
+  public boolean getLazyTypeChecker(ISymbolTable symbolTable, ASTNode node,
+      List<DynamicNode> tests) {
+    return getTypeChecker(symbolTable, node, tests);
+  }
+
+  /**
+   * Gives the proof of the type check as a compact tree.
+   * 
+   * <p>The tree holds the same proofs and judgments as the tests from
+   * {@link #getTypeChecker(ISymbolTable, ASTNode, List)} without any test,
+   * container, or display name, and {@link ProofTree#toDynamicNodes()} turns it into
+   * those tests when they are needed. The verdict is whether the type of the root
+   * is void.
+   * 
+   * @param symbolTable the environment for the type checks
+   * @param node the ASTNode for the compilation unit
+   * @return the proof
+   */
+  public ProofTree getProofTree(ISymbolTable symbolTable, ASTNode node) {
+    long start = metrics == null ? 0 : System.nanoTime();
     Visitor visitor = new Visitor(symbolTable);
+    visitor.proofTree = new ProofTree(visitor.typeScope);
     node.accept(visitor);
-    tests.addAll(visitor.popTypeCheck());
-    return visitor.popType().equals(TypeCheckTypes.VOID);
+    completePhase(IMetricsListener.Phase.PROOF_ASSEMBLY, start);
+    return visitor.proofTree;
+  }
+
+  /**
+   * Returns true if static type safe with the checks without building the proof.
+   * 
+   * <p>Computes the same verdict as {@link #getTypeChecker(ISymbolTable, ASTNode, List)}
+   * but allocates no tests, containers, or display names along the way.
+   * 
+   * @param symbolTable the environment for the type checks
+   * @param node the ASTNode for the compilation unit
+   * @return true iff the compilation is static type safe
+   */
+  public boolean isTypeSafe(ISymbolTable symbolTable, ASTNode node) {
+    long start = metrics == null ? 0 : System.nanoTime();
+    Visitor visitor = new Visitor(symbolTable);
+    node.accept(visitor);
+    completePhase(IMetricsListener.Phase.TYPE_CHECK, start);
+    return TypeCheckTypes.isVoidType(visitor.popType());
+  }
+
+  /**
+   * Finds the first judgment that fails, stopping the check there.
+   * 
+   * <p>Computes the same verdict as {@link #isTypeSafe(ISymbolTable, ASTNode)},
+   * but no statement, method, or class after the first failure is visited, so a
+   * program that is not type safe costs only as much as the part before its
+   * first error. Methods checked in parallel that come after the failure are
+   * cancelled.
+   * 
+   * @param symbolTable the environment for the type checks
+   * @param node the ASTNode for the compilation unit
+   * @return the failing lookup or compatibility judgment with its position, or
+   *     null iff the compilation unit is static type safe
+   */
+  public Diagnostic getFirstFailure(ISymbolTable symbolTable, ASTNode node) {
+    long start = metrics == null ? 0 : System.nanoTime();
+    Visitor visitor = new Visitor(symbolTable);
+    visitor.isFailFast = true;
+    node.accept(visitor);
+    completePhase(IMetricsListener.Phase.TYPE_CHECK, start);
+    return visitor.failure;
+  }
+
+  /**
+   * Gives every judgment that fails in one check.
+   * 
+   * <p>Checks the whole compilation unit like {@link #isTypeSafe(ISymbolTable,
+   * ASTNode)} and keeps only the failing lookup and compatibility judgments with
+   * their positions, so all the errors in a file are reported without building
+   * the proof or checking again.
+   * 
+   * @param symbolTable the environment for the type checks
+   * @param node the ASTNode for the compilation unit
+   * @return the failures ordered by position without duplicates, which is empty
+   *     iff the compilation unit is static type safe
+   */
+  public List<Diagnostic> getDiagnostics(ISymbolTable symbolTable, ASTNode node) {
+    long start = metrics == null ? 0 : System.nanoTime();
+    Visitor visitor = new Visitor(symbolTable);
+    visitor.diagnostics = new ArrayList<>();
+    node.accept(visitor);
+    completePhase(IMetricsListener.Phase.TYPE_CHECK, start);
+    return new ArrayList<>(new TreeSet<>(visitor.diagnostics));
+  }
+
+  /**
+   * Returns true if a single method is static type safe without building the proof.
+   * 
+   * <p>The verdict for a class is the conjunction of the verdicts for its methods,
+   * so callers may check only the methods that changed.
+   * 
+   * @requires method.getParent() instanceof TypeDeclaration
+   * 
+   * @param symbolTable the environment for the class declaring the method
+   * @param method the method to check
+   * @return true iff the method is static type safe
+   */
+  public boolean isMethodTypeSafe(ISymbolTable symbolTable, MethodDeclaration method) {
+    final long start = metrics == null ? 0 : System.nanoTime();
+    Visitor visitor = new Visitor(symbolTable);
+    visitor.className = AstNodePropertiesUtils.getName((TypeDeclaration) method.getParent());
+    visitor.classType = visitor.typeScope.of(visitor.className);
+    method.accept(visitor);
+    completePhase(IMetricsListener.Phase.TYPE_CHECK, start);
+    return TypeCheckTypes.isVoidType(visitor.popType());
+  }
+
+  private void completePhase(IMetricsListener.Phase phase, long start) {
+    if (metrics != null) {
+      metrics.phaseCompleted(phase, System.nanoTime() - start);
+    }
   }
 }
@@ -0,0 +1,245 @@
+package edu.byu.cs329.typechecker;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Persistent cache of type check verdicts and, optionally, proofs keyed by
+ * content hash.
+ *
+ * <p>Keys are SHA-256 hashes of the checker version and the hashed content, so a
+ * key changes whenever either does. Entries are kept in least recently used
+ * order and the eldest are evicted once the cache holds more than its capacity.
+ * The cache is read from its directory when created and written back by
+ * {@link #save()} or {@link #close()}.
+ *
+ * <p>A proof is kept under the same key as its verdict, in a file of its own
+ * written by {@link ProofTreeWriter}, and is deleted when its entry is evicted.
+ */
+public class TypeCheckCache implements Closeable {
+  static final Logger log = LoggerFactory.getLogger(TypeCheckCache.class);
+
+  /**
+   * Change whenever the checker accepts or rejects programs differently, or the
+   * cached proofs change, so that entries from older checkers are never reused.
+   * Change it in the same commit as the change to the checker.
+   */
+  static final String CHECKER_VERSION = "type-checking-3";
+  static final String INDEX_FILE_NAME = "verdicts.idx";
+  static final String PROOF_FILE_SUFFIX = ".proof";
+
+  private final Path directory;
+  private final Map<String, Boolean> verdicts;
+
+  /**
+   * Opens the cache in a directory, creating the directory if needed.
+   *
+   * @param directory where the cache is stored
+   * @param capacity the most entries to keep
+   * @throws IOException if the directory or its index cannot be read
+   */
+  public TypeCheckCache(Path directory, int capacity) throws IOException {
+    this.directory = directory;
+    this.verdicts = new LinkedHashMap<String, Boolean>(16, 0.75f, true) {
+      private static final long serialVersionUID = 1L;
+
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+        if (size() <= capacity) {
+          return false;
+        }
+        deleteProof(eldest.getKey());
+        return true;
+      }
+    };
+    Files.createDirectories(directory);
+    load();
+  }
+
+  /**
+   * Gives the cache key for the content.
+   *
+   * @param parts the content that determines the verdict
+   * @return the hex encoded hash of the checker version and parts
+   */
+  public static String getKey(String... parts) {
+    return getVersionedKey(CHECKER_VERSION, parts);
+  }
+
+  /**
+   * Gives the cache key for the content as a checker version would.
+   *
+   * @param checkerVersion the version of the checker
+   * @param parts the content that determines the verdict
+   * @return the hex encoded hash of checkerVersion and parts
+   */
+  static String getVersionedKey(String checkerVersion, String... parts) {
+    MessageDigest digest = null;
+    try {
+      digest = MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+    digest.update(checkerVersion.getBytes(StandardCharsets.UTF_8));
+    for (String part : parts) {
+      digest.update((byte) 0);
+      digest.update(part.getBytes(StandardCharsets.UTF_8));
+    }
+
+    StringBuilder key = new StringBuilder();
+    for (byte b : digest.digest()) {
+      key.append(Character.forDigit((b >> 4) & 0xF, 16));
+      key.append(Character.forDigit(b & 0xF, 16));
+    }
+    return key.toString();
+  }
+
+  /**
+   * Gives the cached verdict for the key and marks it recently used.
+   *
+   * @param key a key from {@link #getKey(String...)}
+   * @return the verdict or null if it is not cached
+   */
+  public synchronized Boolean getVerdict(String key) {
+    return verdicts.get(key);
+  }
+
+  /**
+   * Caches the verdict for the key.
+   *
+   * @param key a key from {@link #getKey(String...)}
+   * @param isTypeSafe the verdict for the content
+   */
+  public synchronized void putVerdict(String key, boolean isTypeSafe) {
+    verdicts.put(key, isTypeSafe);
+  }
+
+  /**
+   * Gives the cached proof for the key and marks its entry recently used.
+   *
+   * <p>A proof that cannot be read is treated as not cached.
+   *
+   * @param key a key from {@link #getKey(String...)}
+   * @return the proof or null if it is not cached
+   */
+  public ProofTree getProof(String key) {
+    synchronized (this) {
+      if (verdicts.get(key) == null) {
+        return null;
+      }
+    }
+    Path file = getProofFile(key);
+    if (!Files.exists(file)) {
+      return null;
+    }
+    try (InputStream in = Files.newInputStream(file);
+        ProofTreeReader reader = new ProofTreeReader(in)) {
+      return reader.read();
+    } catch (IOException e) {
+      log.debug("failed to read cached proof {}", file, e);
+      return null;
+    }
+  }
+
+  /**
+   * Caches the proof and its verdict for the key.
+   *
+   * <p>The proof is written to a temporary file and then moved into place, so a
+   * reader never sees part of it. When it cannot be written only the verdict is
+   * cached.
+   *
+   * @param key a key from {@link #getKey(String...)}
+   * @param proofTree the proof for the content
+   */
+  public void putProof(String key, ProofTree proofTree) {
+    Path temp = null;
+    try {
+      temp = Files.createTempFile(directory, key, PROOF_FILE_SUFFIX + ".tmp");
+      try (OutputStream out = Files.newOutputStream(temp);
+          ProofTreeWriter writer = new ProofTreeWriter(out)) {
+        writer.write(proofTree);
+      }
+      Files.move(temp, getProofFile(key), StandardCopyOption.REPLACE_EXISTING);
+    } catch (IOException e) {
+      log.debug("failed to cache the proof for {}", key, e);
+      deleteQuietly(temp);
+    }
+    putVerdict(key, proofTree.isTypeSafe());
+  }
+
+  public synchronized int size() {
+    return verdicts.size();
+  }
+
+  /**
+   * Writes the entries to the cache directory, eldest first.
+   *
+   * @throws IOException if the index cannot be written
+   */
+  public synchronized void save() throws IOException {
+    Path index = directory.resolve(INDEX_FILE_NAME);
+    Path temp = directory.resolve(INDEX_FILE_NAME + ".tmp");
+    try (BufferedWriter writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+      for (Map.Entry<String, Boolean> entry : verdicts.entrySet()) {
+        writer.write(entry.getKey());
+        writer.write(entry.getValue() ? " 1" : " 0");
+        writer.newLine();
+      }
+    }
+    Files.move(temp, index, StandardCopyOption.REPLACE_EXISTING);
+  }
+
+  @Override
+  public void close() throws IOException {
+    save();
+  }
+
+  private Path getProofFile(String key) {
+    return directory.resolve(key + PROOF_FILE_SUFFIX);
+  }
+
+  private void deleteProof(String key) {
+    deleteQuietly(getProofFile(key));
+  }
+
+  private static void deleteQuietly(Path file) {
+    if (file == null) {
+      return;
+    }
+    try {
+      Files.deleteIfExists(file);
+    } catch (IOException e) {
+      log.debug("failed to delete {}", file, e);
+    }
+  }
+
+  private void load() throws IOException {
+    Path index = directory.resolve(INDEX_FILE_NAME);
+    if (!Files.exists(index)) {
+      return;
+    }
+    try (BufferedReader reader = Files.newBufferedReader(index, StandardCharsets.UTF_8)) {
+      String line = null;
+      while ((line = reader.readLine()) != null) {
+        int split = line.indexOf(' ');
+        if (split > 0) {
+          verdicts.put(line.substring(0, split), line.endsWith("1"));
+        }
+      }
+    }
+  }
+}
@@ -0,0 +1,162 @@
+package edu.byu.cs329.typechecker;
+
+import edu.byu.cs329.typechecker.BatchTypeChecker.Result;
+import edu.byu.cs329.typechecker.BatchTypeChecker.Verdict;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Sends check requests to a {@link TypeCheckDaemon}.
+ *
+ * <p>If the daemon cannot be reached the request is checked in this process
+ * instead, so the verdict is the same either way and only the time differs. A
+ * file the daemon refuses to read is read here and its source sent instead.
+ */
+public class TypeCheckClient {
+  static final Logger log = LoggerFactory.getLogger(TypeCheckClient.class);
+  static final int CONNECT_TIMEOUT_MILLIS = 250;
+
+  private final int port;
+  private BatchTypeChecker fallback = null;
+
+  public TypeCheckClient() {
+    this(TypeCheckDaemon.DEFAULT_PORT);
+  }
+
+  /**
+   * Creates a client for the daemon on a loopback port.
+   *
+   * @param port the port the daemon listens on
+   */
+  public TypeCheckClient(int port) {
+    this.port = port;
+  }
+
+  /**
+   * Checks a file.
+   *
+   * @param file the Java source file to check
+   * @param isProofEnabled true to give the proof in the result
+   * @return the result for the file
+   */
+  public Result check(Path file, boolean isProofEnabled) {
+    try {
+      Result result = request(TypeCheckDaemon.CHECK_FILE, file.toAbsolutePath().toString(),
+          isProofEnabled, file);
+      if (!TypeCheckDaemon.REFUSED_MESSAGE.equals(result.getMessage())) {
+        return result;
+      }
+      String source = new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+      return request(TypeCheckDaemon.CHECK_SOURCE, source, isProofEnabled, file);
+    } catch (IOException e) {
+      log.debug("checking {} in process", file, e);
+      return getFallback().check(file, isProofEnabled);
+    }
+  }
+
+  /**
+   * Checks source text that is not in a file.
+   *
+   * @param source the text of a compilation unit
+   * @param isProofEnabled true to give the proof in the result
+   * @return the result, which has no path
+   */
+  public Result checkSource(String source, boolean isProofEnabled) {
+    try {
+      return request(TypeCheckDaemon.CHECK_SOURCE, source, isProofEnabled, null);
+    } catch (IOException e) {
+      log.debug("checking source in process", e);
+      return getFallback().checkSource(source, isProofEnabled);
+    }
+  }
+
+  private Result request(byte kind, String argument, boolean isProofEnabled, Path file)
+      throws IOException {
+    try (Socket socket = new Socket()) {
+      socket.connect(new InetSocketAddress(InetAddress.getLoopbackAddress(), port),
+          CONNECT_TIMEOUT_MILLIS);
+      DataOutputStream out =
+          new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+      out.writeByte(kind);
+      out.writeByte(isProofEnabled ? TypeCheckDaemon.PROOF : 0);
+      TypeCheckDaemon.writeString(out, argument);
+      out.flush();
+
+      DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+      int ordinal = in.readByte();
+      if (ordinal < 0 || ordinal >= Verdict.values().length) {
+        throw new IOException("unknown verdict " + ordinal);
+      }
+      Verdict verdict = Verdict.values()[ordinal];
+      long elapsedNanos = in.readLong();
+      String message = TypeCheckDaemon.readString(in);
+      ProofTree proofTree = null;
+      if (in.readBoolean()) {
+        proofTree = new ProofTreeReader(in).read();
+      }
+      if (TypeCheckDaemon.BUSY_MESSAGE.equals(message)) {
+        throw new IOException(message);
+      }
+      return new Result(file, verdict, elapsedNanos, message, proofTree);
+    }
+  }
+
+  private synchronized BatchTypeChecker getFallback() {
+    if (fallback == null) {
+      fallback = new BatchTypeChecker();
+    }
+    return fallback;
+  }
+
+  /**
+   * Checks the files named on the command line with the daemon.
+   *
+   * @param args Java source files or directories, optionally preceded by "--port"
+   *     and the daemon's port and by "--proof" to list the failed judgments
+   * @throws IOException if a directory cannot be walked
+   */
+  public static void main(String[] args) throws IOException {
+    int port = TypeCheckDaemon.DEFAULT_PORT;
+    boolean isProofEnabled = false;
+    List<Path> files = new ArrayList<>();
+    for (int i = 0; i < args.length; ++i) {
+      if (args[i].equals("--port") && i + 1 < args.length) {
+        port = Integer.parseInt(args[++i]);
+      } else if (args[i].equals("--proof")) {
+        isProofEnabled = true;
+      } else if (Files.isDirectory(Paths.get(args[i]))) {
+        files.addAll(BatchTypeChecker.findJavaFiles(Paths.get(args[i])));
+      } else {
+        files.add(Paths.get(args[i]));
+      }
+    }
+
+    TypeCheckClient client = new TypeCheckClient(port);
+    List<Result> results = new ArrayList<>();
+    for (Path file : files) {
+      results.add(client.check(file, isProofEnabled));
+    }
+    BatchTypeChecker.writeSummary(results, System.out);
+    for (Result result : results) {
+      if (result.getProofTree() != null) {
+        for (String failure : result.getProofTree().getFailedJudgments()) {
+          System.out.println(result.getPath() + "\t" + failure);
+        }
+      }
+    }
+  }
+}
@@ -0,0 +1,308 @@
+package edu.byu.cs329.typechecker;
+
+import edu.byu.cs329.typechecker.BatchTypeChecker.Result;
+import edu.byu.cs329.typechecker.BatchTypeChecker.Verdict;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Keeps a type checker resident and serves check requests over a loopback socket.
+ *
+ * <p>A client opens a connection per request. The request is a kind byte,
+ * {@link #CHECK_FILE} or {@link #CHECK_SOURCE}, a flags byte, and a string that
+ * is the absolute path or the source text. The response is the
+ * {@link Verdict} ordinal, the checking time in nanoseconds, the failure message,
+ * and, if {@link #PROOF} was set and the source was checked, a proof in the
+ * format of {@link ProofTreeWriter}. Strings are an int length, -1 for null, and
+ * UTF-8 bytes.
+ *
+ * <p>Requests are checked on a fixed number of threads with a bounded queue, and
+ * a connection that arrives while the queue is full is answered with
+ * {@link Verdict#FAILED} straight away. A connection that does not send its
+ * request within the read timeout is closed so it does not hold a thread.
+ *
+ * <p>The daemon reads a file only if its real path is under the root set with
+ * {@link #setRoot(Path)}. Every other file request, and every file request when
+ * no root is set, is answered with {@link Verdict#FAILED} and
+ * {@link #REFUSED_MESSAGE}, and the client sends the source instead.
+ *
+ * <p>The types of each program are interned in the {@link TypeScope} of its own
+ * symbol table, so nothing a request interns outlives the request.
+ */
+public class TypeCheckDaemon implements Closeable {
+  static final Logger log = LoggerFactory.getLogger(TypeCheckDaemon.class);
+
+  public static final int DEFAULT_PORT = 7329;
+  public static final int DEFAULT_READ_TIMEOUT_MILLIS = 10000;
+  static final byte CHECK_FILE = 'F';
+  static final byte CHECK_SOURCE = 'S';
+  static final byte PROOF = 1;
+  static final int MAX_STRING_BYTES = 1 << 26;
+  static final String BUSY_MESSAGE = "daemon is busy";
+  static final String REFUSED_MESSAGE = "file is outside the daemon root";
+
+  private final BatchTypeChecker checker;
+  private final ServerSocket serverSocket;
+  private final ThreadPoolExecutor executor;
+  private final Thread acceptor;
+  private int readTimeoutMillis = DEFAULT_READ_TIMEOUT_MILLIS;
+  private volatile Path root = null;
+
+  /**
+   * Creates a daemon listening on the loopback address.
+   *
+   * @param port the port to listen on or 0 for any free port
+   * @param threads the most requests to check at once
+   * @param checker the checker to serve
+   * @throws IOException if the port cannot be bound
+   */
+  public TypeCheckDaemon(int port, int threads, BatchTypeChecker checker) throws IOException {
+    this.checker = checker;
+    this.serverSocket = new ServerSocket(port, threads * 4, InetAddress.getLoopbackAddress());
+    this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+        new ArrayBlockingQueue<>(threads * 4));
+    this.acceptor = new Thread(this::accept, "type-check-daemon");
+  }
+
+  /**
+   * Starts accepting requests.
+   */
+  public void start() {
+    acceptor.start();
+    log.info("listening on {}", serverSocket.getLocalSocketAddress());
+  }
+
+  public int getPort() {
+    return serverSocket.getLocalPort();
+  }
+
+  /**
+   * Sets how long to wait for a client to send its request.
+   *
+   * @param readTimeoutMillis the longest wait for each read in milliseconds
+   */
+  public void setReadTimeout(int readTimeoutMillis) {
+    this.readTimeoutMillis = readTimeoutMillis;
+  }
+
+  /**
+   * Sets the directory under which the daemon may read the files it is asked to check.
+   *
+   * @param root the directory, which must exist
+   * @throws IOException if the real path of root cannot be found
+   */
+  public void setRoot(Path root) throws IOException {
+    this.root = root.toRealPath();
+  }
+
+  /**
+   * Waits until the daemon is closed.
+   *
+   * @throws InterruptedException if interrupted while waiting
+   */
+  public void join() throws InterruptedException {
+    acceptor.join();
+  }
+
+  /**
+   * Stops accepting requests and waits briefly for those being checked.
+   *
+   * @throws IOException if the socket cannot be closed
+   */
+  @Override
+  public void close() throws IOException {
+    serverSocket.close();
+    executor.shutdown();
+    try {
+      executor.awaitTermination(10, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private void accept() {
+    while (!serverSocket.isClosed()) {
+      Socket socket = null;
+      try {
+        socket = serverSocket.accept();
+      } catch (IOException e) {
+        if (!serverSocket.isClosed()) {
+          log.warn("failed to accept a connection", e);
+        }
+        continue;
+      }
+
+      final Socket connection = socket;
+      try {
+        executor.execute(() -> serve(connection));
+      } catch (RejectedExecutionException e) {
+        reject(connection);
+      }
+    }
+  }
+
+  private void serve(Socket socket) {
+    try (Socket connection = socket) {
+      connection.setSoTimeout(readTimeoutMillis);
+      DataInputStream in =
+          new DataInputStream(new BufferedInputStream(connection.getInputStream()));
+      int kind = in.readByte();
+      boolean isProofEnabled = (in.readByte() & PROOF) != 0;
+      String argument = readString(in);
+
+      Result result = null;
+      if (kind == CHECK_FILE) {
+        result = checkFile(argument, isProofEnabled);
+      } else if (kind == CHECK_SOURCE) {
+        result = checker.checkSource(argument, isProofEnabled);
+      } else {
+        result = new Result(null, Verdict.FAILED, 0, "unknown request " + kind, null);
+      }
+      writeResult(connection, result);
+    } catch (SocketTimeoutException e) {
+      log.debug("closing a connection that sent no request in {} ms", readTimeoutMillis);
+    } catch (IOException e) {
+      log.debug("failed to serve a request", e);
+    }
+  }
+
+  /**
+   * Checks a file if it is under the root and refuses it otherwise.
+   */
+  private Result checkFile(String name, boolean isProofEnabled) {
+    Path directory = root;
+    Path file = null;
+    try {
+      file = Paths.get(name).toRealPath();
+    } catch (IOException | InvalidPathException e) {
+      log.debug("refusing {}", name, e);
+    }
+    if (directory == null || file == null || !file.startsWith(directory)) {
+      return new Result(null, Verdict.FAILED, 0, REFUSED_MESSAGE, null);
+    }
+    return checker.check(file, isProofEnabled);
+  }
+
+  private void reject(Socket socket) {
+    try (Socket connection = socket) {
+      writeResult(connection, new Result(null, Verdict.FAILED, 0, BUSY_MESSAGE, null));
+    } catch (IOException e) {
+      log.debug("failed to reject a request", e);
+    }
+  }
+
+  private static void writeResult(Socket connection, Result result) throws IOException {
+    DataOutputStream out =
+        new DataOutputStream(new BufferedOutputStream(connection.getOutputStream()));
+    out.writeByte(result.getVerdict().ordinal());
+    out.writeLong(result.getElapsedNanos());
+    writeString(out, result.getMessage());
+    out.writeBoolean(result.getProofTree() != null);
+    out.flush();
+    if (result.getProofTree() != null) {
+      new ProofTreeWriter(out).write(result.getProofTree());
+    }
+  }
+
+  static void writeString(DataOutputStream out, String value) throws IOException {
+    if (value == null) {
+      out.writeInt(-1);
+      return;
+    }
+    byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+    out.writeInt(bytes.length);
+    out.write(bytes);
+  }
+
+  static String readString(DataInputStream in) throws IOException {
+    int length = in.readInt();
+    if (length < 0) {
+      return null;
+    } else if (length > MAX_STRING_BYTES) {
+      throw new IOException("string of " + length + " bytes is too long");
+    }
+    byte[] bytes = new byte[length];
+    in.readFully(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  /**
+   * Checks generated programs so the parser and checker are compiled before the
+   * first request.
+   *
+   * @param checker the checker to warm up
+   */
+  static void warmUp(BatchTypeChecker checker) {
+    for (long seed = 0; seed < 20; ++seed) {
+      ProgramGenerator generator = new ProgramGenerator(seed, 5, 20, 2, 10, 4);
+      checker.checkSource(generator.generate(seed % 2 == 0).getSource(), seed % 4 < 2);
+    }
+  }
+
+  /**
+   * Runs the daemon until the process is stopped.
+   *
+   * @param args optionally "--port" and a port, "--threads" and a thread count,
+   *     "--cache" and the cache directory, and "--root" and the directory under
+   *     which files may be read
+   * @throws IOException if the port cannot be bound or the cache cannot be read
+   * @throws InterruptedException if interrupted while running
+   */
+  public static void main(String[] args) throws IOException, InterruptedException {
+    int port = DEFAULT_PORT;
+    int threads = Runtime.getRuntime().availableProcessors();
+    TypeCheckCache cache = null;
+    Path root = null;
+    for (int i = 0; i + 1 < args.length; i += 2) {
+      if (args[i].equals("--port")) {
+        port = Integer.parseInt(args[i + 1]);
+      } else if (args[i].equals("--threads")) {
+        threads = Integer.parseInt(args[i + 1]);
+      } else if (args[i].equals("--cache")) {
+        cache = new TypeCheckCache(Paths.get(args[i + 1]),
+            BatchTypeChecker.DEFAULT_CACHE_CAPACITY);
+      } else if (args[i].equals("--root")) {
+        root = Paths.get(args[i + 1]);
+      }
+    }
+
+    BatchTypeChecker checker = new BatchTypeChecker(ForkJoinPool.commonPool(), cache);
+    warmUp(checker);
+    TypeCheckDaemon daemon = new TypeCheckDaemon(port, threads, checker);
+    if (root != null) {
+      daemon.setRoot(root);
+    }
+    final TypeCheckCache daemonCache = cache;
+    Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+      try {
+        daemon.close();
+        if (daemonCache != null) {
+          daemonCache.close();
+        }
+      } catch (IOException e) {
+        log.warn("failed to shut down", e);
+      }
+    }));
+    daemon.start();
+    daemon.join();
+  }
+}
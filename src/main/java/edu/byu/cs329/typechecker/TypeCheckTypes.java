@@ -1,7 +1,7 @@
 package edu.byu.cs329.typechecker;
 
 public class TypeCheckTypes {
-  
+
   public static final String INT = "int";
   public static final String BOOL = "boolean";
   public static final String VOID = "void";
@@ -12,21 +12,37 @@ public class TypeCheckTypes {
     return type.equals(INT) || type.equals(BOOL);
   }
 
+  public static boolean isPrimitive(TypeId type) {
+    return type == TypeId.INT || type == TypeId.BOOL;
+  }
+
   public static boolean isError(String type) {
     return type.equals(ERROR);
   }
 
+  public static boolean isError(TypeId type) {
+    return type == TypeId.ERROR;
+  }
+
   public static boolean isNullType(String type) {
     return type.equals(NULL);
   }
 
+  public static boolean isNullType(TypeId type) {
+    return type == TypeId.NULL;
+  }
+
   public static boolean isVoidType(String type) {
     return type.equals(VOID);
   }
 
+  public static boolean isVoidType(TypeId type) {
+    return type == TypeId.VOID;
+  }
+
   /**
    * Determines if two types are assignment compatible.
-   * 
+   *
    * @param leftType type
    * @param rightType type
    * @return true if assignment compatible
@@ -37,10 +53,29 @@ public class TypeCheckTypes {
     }
     if (isNullType(leftType) || isVoidType(leftType)) {
       return false;
-    } 
+    }
 
     return (!isPrimitive(leftType) && isNullType(rightType))
         || leftType.equals(rightType);
   }
 
+  /**
+   * Determines if two interned types are assignment compatible.
+   *
+   * @param leftType type
+   * @param rightType type
+   * @return true if assignment compatible
+   */
+  public static boolean isAssignmentCompatible(TypeId leftType, TypeId rightType) {
+    if (isError(leftType) || isError(rightType)) {
+      return false;
+    }
+    if (isNullType(leftType) || isVoidType(leftType)) {
+      return false;
+    }
+
+    return (!isPrimitive(leftType) && isNullType(rightType))
+        || leftType == rightType;
+  }
+
 }
@@ -10,6 +10,7 @@ import org.eclipse.jdt.core.dom.SimpleName;
 import org.eclipse.jdt.core.dom.SimpleType;
 import org.eclipse.jdt.core.dom.SingleVariableDeclaration;
 import org.eclipse.jdt.core.dom.Type;
+import org.eclipse.jdt.core.dom.TypeDeclaration;
 import org.eclipse.jdt.core.dom.VariableDeclarationStatement;
 
 public class TypeCheckUtils {
@@ -35,41 +36,114 @@ public class TypeCheckUtils {
   }
 
   private static String getType(Type type) {
-    String typeName = null;
+    checkSupported(type);
     if (type.isPrimitiveType()) {
-      typeName = getType((PrimitiveType) type);
-    } else if (type.isSimpleType()) {
-      typeName = getType((SimpleType) type);
-    } else {
-      ExceptionUtils.throwRuntimeException(type.toString() + " is not a simple or primitive type");
+      return getType((PrimitiveType) type);
     }
-    return typeName;
+    return getType((SimpleType) type);
   }
 
+  /**
+   * Gives the name of a simple type.
+   * 
+   * @requires getUnsupportedReason(type) == null
+   */
   private static String getType(SimpleType type) {
-    Name name = type.getName();
-    String typeName = null;
-    if (name instanceof SimpleName) {
-      typeName = AstNodePropertiesUtils.getName((SimpleName) name);
-    } else {
-      ExceptionUtils.throwRuntimeException(name.getFullyQualifiedName() + " is not a SimpleName");
-    }
-    return typeName;
+    return AstNodePropertiesUtils.getName((SimpleName) type.getName());
   }
 
+  /**
+   * Gives the name of a primitive type.
+   * 
+   * @requires getUnsupportedReason(type) == null
+   */
   private static String getType(PrimitiveType type) {
-    String typeName = null;
-    if (type.getPrimitiveTypeCode() == PrimitiveType.INT) {
-      typeName = TypeCheckTypes.INT;
-    } else if (type.getPrimitiveTypeCode() == PrimitiveType.BOOLEAN) {
-      typeName = TypeCheckTypes.BOOL;
-    } else if (type.getPrimitiveTypeCode() == PrimitiveType.VOID) {
-      typeName = TypeCheckTypes.VOID;
-    } else {
-      // Not tested
-      ExceptionUtils.throwRuntimeException(
-          "primitive type " + type.toString() + " is not an int, boolean, or void");
+    PrimitiveType.Code code = type.getPrimitiveTypeCode();
+    if (code == PrimitiveType.INT) {
+      return TypeCheckTypes.INT;
+    } else if (code == PrimitiveType.BOOLEAN) {
+      return TypeCheckTypes.BOOL;
+    }
+    return TypeCheckTypes.VOID;
+  }
+
+  public static TypeId getTypeId(TypeScope typeScope, FieldDeclaration field) {
+    return getTypeId(typeScope, field.getType());
+  }
+
+  public static TypeId getTypeId(TypeScope typeScope, MethodDeclaration method) {
+    return getTypeId(typeScope, method.getReturnType2());
+  }
+
+  public static TypeId getTypeId(TypeScope typeScope, SingleVariableDeclaration declaration) {
+    return getTypeId(typeScope, declaration.getType());
+  }
+
+  public static TypeId getTypeId(TypeScope typeScope, VariableDeclarationStatement declaration) {
+    return getTypeId(typeScope, declaration.getType());
+  }
+
+  private static TypeId getTypeId(TypeScope typeScope, Type type) {
+    checkSupported(type);
+    if (type.isPrimitiveType()) {
+      PrimitiveType.Code code = ((PrimitiveType) type).getPrimitiveTypeCode();
+      if (code == PrimitiveType.INT) {
+        return TypeId.INT;
+      } else if (code == PrimitiveType.BOOLEAN) {
+        return TypeId.BOOL;
+      }
+      return TypeId.VOID;
+    }
+    return typeScope.of(getType((SimpleType) type));
+  }
+
+  /**
+   * Gives the class a class declaration extends.
+   * 
+   * @param type a class declaration
+   * @return the simple name of the superclass or null if there is no extends clause
+   */
+  public static String getSuperclass(TypeDeclaration type) {
+    Type superclassType = type.getSuperclassType();
+    return superclassType == null ? null : getType(superclassType);
+  }
+
+  /**
+   * Gives why a declared type is not supported.
+   * 
+   * <p>This is the one check of a declared type: the getters above throw with
+   * the same reason, so a rejected declaration and a failed lookup of its type
+   * report the same text.
+   * 
+   * @param type the type of a declaration, which is null for a constructor
+   * @return the reason or null if type is int, boolean, void, or a simple name
+   */
+  static String getUnsupportedReason(Type type) {
+    if (type == null) {
+      return "a declared type is required";
+    }
+    if (type.isPrimitiveType()) {
+      PrimitiveType.Code code = ((PrimitiveType) type).getPrimitiveTypeCode();
+      if (code == PrimitiveType.INT || code == PrimitiveType.BOOLEAN
+          || code == PrimitiveType.VOID) {
+        return null;
+      }
+      return "primitive type " + type.toString() + " is not an int, boolean, or void";
+    }
+    if (!type.isSimpleType()) {
+      return type.toString() + " is not a simple or primitive type";
+    }
+    Name name = ((SimpleType) type).getName();
+    if (!(name instanceof SimpleName)) {
+      return name.getFullyQualifiedName() + " is not a SimpleName";
+    }
+    return null;
+  }
+
+  private static void checkSupported(Type type) {
+    String reason = getUnsupportedReason(type);
+    if (reason != null) {
+      ExceptionUtils.throwRuntimeException(reason);
     }
-    return typeName;
   }
 }
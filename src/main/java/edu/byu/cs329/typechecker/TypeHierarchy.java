@@ -0,0 +1,131 @@
+package edu.byu.cs329.typechecker;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * The subclass relation over the classes of a program.
+ *
+ * <p>Each class that has a subclass keeps a bit set of its direct and indirect
+ * subclasses, indexed by {@link TypeId#getId()} in the {@link TypeScope} of the
+ * program. The sets are built once from the superclass of each class, so an
+ * assignment check is a single bit test however deep the hierarchy is.
+ */
+public final class TypeHierarchy {
+  /**
+   * The hierarchy of a program where no class extends another.
+   */
+  public static final TypeHierarchy EMPTY = new TypeHierarchy(new BitSet[0]);
+
+  private final BitSet[] subclasses;
+
+  private TypeHierarchy(BitSet[] subclasses) {
+    this.subclasses = subclasses;
+  }
+
+  /**
+   * Builds the hierarchy of the classes in a program.
+   *
+   * <p>A superclass that is not one of the classes is kept as a leaf, so a class
+   * is still a subtype of it.
+   *
+   * @requires no class in classMap is cyclic as in {@link #isCyclic(Map, String)}
+   *
+   * @param classMap the members of each class by class name
+   * @param typeScope the scope of the types of the classes
+   * @return the hierarchy
+   */
+  static TypeHierarchy of(Map<String, ClassMembers> classMap, TypeScope typeScope) {
+    BitSet[] subclasses = new BitSet[0];
+    for (ClassMembers members : classMap.values()) {
+      String superclass = members.getSuperclass();
+      if (superclass == null) {
+        continue;
+      }
+      int subclassId = typeScope.of(members.getName()).getId();
+      while (superclass != null) {
+        int superclassId = typeScope.of(superclass).getId();
+        if (superclassId >= subclasses.length) {
+          subclasses = Arrays.copyOf(subclasses, Math.max(superclassId + 1, typeScope.size()));
+        }
+        if (subclasses[superclassId] == null) {
+          subclasses[superclassId] = new BitSet();
+        }
+        subclasses[superclassId].set(subclassId);
+        ClassMembers superclassMembers = classMap.get(superclass);
+        superclass = superclassMembers == null ? null : superclassMembers.getSuperclass();
+      }
+    }
+    return subclasses.length == 0 ? EMPTY : new TypeHierarchy(subclasses);
+  }
+
+  /**
+   * Returns true if a class is its own superclass, directly or indirectly.
+   *
+   * <p>Every check for cyclic inheritance uses this, and a cycle must be broken
+   * before the classes are given to {@link #of(Map, TypeScope)}.
+   *
+   * @param classMap the members of each class by class name
+   * @param className a class in classMap
+   * @return true iff following the superclasses from className comes back to it
+   */
+  static boolean isCyclic(Map<String, ClassMembers> classMap, String className) {
+    return isCyclic(classMap::get, classMap.size(), className);
+  }
+
+  /**
+   * Returns true if a class is its own superclass, looking up each superclass
+   * with a function rather than in one map.
+   *
+   * @param classes gives the members of a class by class name, or null if none
+   * @param classCount the number of classes the function knows
+   * @param className a class known to classes
+   * @return true iff following the superclasses from className comes back to it
+   */
+  static boolean isCyclic(Function<String, ClassMembers> classes, int classCount,
+      String className) {
+    String superclass = classes.apply(className).getSuperclass();
+    // bounded, since the superclasses may run into a cycle that misses className
+    for (int depth = 0; superclass != null && depth < classCount; ++depth) {
+      if (superclass.equals(className)) {
+        return true;
+      }
+      ClassMembers superclassMembers = classes.apply(superclass);
+      superclass = superclassMembers == null ? null : superclassMembers.getSuperclass();
+    }
+    return false;
+  }
+
+  /**
+   * Returns true if one type is a subtype of another.
+   *
+   * @param subtype a type
+   * @param supertype a type
+   * @return true iff the types are the same or subtype is a subclass of supertype
+   */
+  public boolean isSubtype(TypeId subtype, TypeId supertype) {
+    return subtype == supertype || isSubclass(subtype, supertype);
+  }
+
+  /**
+   * Determines if two types are assignment compatible.
+   *
+   * @ensures TypeCheckTypes.isAssignmentCompatible(leftType, rightType) ==> \result
+   *
+   * @param leftType type
+   * @param rightType type
+   * @return true if assignment compatible or rightType is a subclass of leftType
+   */
+  public boolean isAssignmentCompatible(TypeId leftType, TypeId rightType) {
+    return TypeCheckTypes.isAssignmentCompatible(leftType, rightType)
+        || isSubclass(rightType, leftType);
+  }
+
+  private boolean isSubclass(TypeId subtype, TypeId supertype) {
+    int supertypeId = supertype.getId();
+    return supertypeId < subclasses.length && subclasses[supertypeId] != null
+        && subclasses[supertypeId].get(subtype.getId());
+  }
+}
@@ -0,0 +1,53 @@
+package edu.byu.cs329.typechecker;
+
+/**
+ * Interned type identifier.
+ *
+ * <p>There is exactly one instance per type name in a {@link TypeScope} so types
+ * are compared by reference (or by {@link #getId()}) rather than by string
+ * equality. The predefined types are shared by every scope.
+ */
+public final class TypeId {
+  public static final TypeId INT = new TypeId(0, TypeCheckTypes.INT);
+  public static final TypeId BOOL = new TypeId(1, TypeCheckTypes.BOOL);
+  public static final TypeId VOID = new TypeId(2, TypeCheckTypes.VOID);
+  public static final TypeId NULL = new TypeId(3, TypeCheckTypes.NULL);
+  public static final TypeId ERROR = new TypeId(4, TypeCheckTypes.ERROR);
+  static final TypeId[] PREDEFINED = {INT, BOOL, VOID, NULL, ERROR};
+
+  private final int id;
+  private final String name;
+
+  TypeId(int id, String name) {
+    this.id = id;
+    this.name = name;
+  }
+
+  /**
+   * Gives the predefined type with a name without interning anything.
+   *
+   * @param name a type name as in "int" or "A"
+   * @return the predefined type named name or null if there is none
+   */
+  public static TypeId find(String name) {
+    for (TypeId type : PREDEFINED) {
+      if (type.name.equals(name)) {
+        return type;
+      }
+    }
+    return null;
+  }
+
+  public int getId() {
+    return id;
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  @Override
+  public String toString() {
+    return name;
+  }
+}
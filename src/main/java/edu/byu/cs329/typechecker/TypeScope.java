@@ -0,0 +1,112 @@
+package edu.byu.cs329.typechecker;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The interned types of one program.
+ *
+ * <p>Each symbol table owns a scope, and every type the table, the type checker,
+ * and the proof tree use for the program comes from it, so types are compared by
+ * reference within the program. The predefined types in {@link TypeId} are the
+ * same in every scope. A scope is dropped with the last table that uses it, so a
+ * process that checks many programs holds only the names of those in use.
+ */
+public final class TypeScope {
+  private static final int INITIAL_CAPACITY = 16;
+  private static final Map<Object, TypeScope> ownedScopes =
+      Collections.synchronizedMap(new WeakHashMap<>());
+
+  private final Map<String, TypeId> types = new ConcurrentHashMap<>();
+  private volatile TypeId[] byId;
+  private volatile int nextId;
+
+  /**
+   * Creates a scope with only the predefined types.
+   */
+  public TypeScope() {
+    byId = Arrays.copyOf(TypeId.PREDEFINED, INITIAL_CAPACITY);
+    nextId = TypeId.PREDEFINED.length;
+  }
+
+  /**
+   * Gives the scope of an object that does not keep one itself.
+   *
+   * @param owner the object the types are interned for
+   * @return the same scope for as long as owner is reachable
+   */
+  static TypeScope of(Object owner) {
+    return ownedScopes.computeIfAbsent(owner, key -> new TypeScope());
+  }
+
+  /**
+   * Gives the unique identifier for the named type in this scope.
+   *
+   * <p>Only names from the declarations of the program should be given, since
+   * each new name is kept for the life of the scope.
+   *
+   * @ensures of(name) == of(name)
+   *
+   * @param name the type name as in "int" or "A"
+   * @return the interned identifier for name
+   */
+  public TypeId of(String name) {
+    TypeId type = find(name);
+    if (type != null) {
+      return type;
+    }
+    return register(name);
+  }
+
+  /**
+   * Gives the identifier for the named type if it is already interned.
+   *
+   * @param name the type name as in "int" or "A"
+   * @return the identifier for name or null if name is not in this scope
+   */
+  public TypeId find(String name) {
+    TypeId type = TypeId.find(name);
+    return type != null ? type : types.get(name);
+  }
+
+  private synchronized TypeId register(String name) {
+    TypeId type = types.get(name);
+    if (type != null) {
+      return type;
+    }
+    type = new TypeId(nextId, name);
+    TypeId[] typesById = byId;
+    if (type.getId() == typesById.length) {
+      typesById = Arrays.copyOf(typesById, typesById.length * 2);
+    }
+    typesById[type.getId()] = type;
+    byId = typesById;
+    nextId = type.getId() + 1;
+    types.put(name, type);
+    return type;
+  }
+
+  /**
+   * Gives the type with the identifier.
+   *
+   * @requires 0 <= id < size()
+   *
+   * @param id an identifier from {@link TypeId#getId()} for a type in this scope
+   * @return the type with the identifier
+   */
+  public TypeId get(int id) {
+    return byId[id];
+  }
+
+  /**
+   * Gives the number of types in this scope.
+   *
+   * @return an upper bound on {@link TypeId#getId()} for every type interned so far
+   */
+  public int size() {
+    return nextId;
+  }
+}
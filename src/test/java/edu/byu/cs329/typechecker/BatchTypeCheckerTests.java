@@ -0,0 +1,324 @@
+package edu.byu.cs329.typechecker;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import edu.byu.cs329.typechecker.BatchTypeChecker.Result;
+import edu.byu.cs329.typechecker.BatchTypeChecker.Verdict;
+import edu.byu.cs329.typechecker.IMetricsListener.Phase;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import org.eclipse.jdt.core.dom.ASTMatcher;
+import org.eclipse.jdt.core.dom.ASTNode;
+import org.eclipse.jdt.core.dom.CompilationUnit;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+@DisplayName("Tests for the BatchTypeChecker")
+public class BatchTypeCheckerTests {
+  BatchTypeChecker checker = null;
+
+  @BeforeEach
+  void beforeEach() {
+    checker = new BatchTypeChecker();
+  }
+
+  private Path getResourcePath(String name) throws Exception {
+    return Paths.get(getClass().getClassLoader().getResource(name).toURI());
+  }
+
+  @Test
+  @DisplayName("Should give each file its expected verdict when given the type checker inputs")
+  void should_giveExpectedVerdicts_when_givenTypeCheckerInputs() throws Exception {
+    List<Result> results = checker.checkDirectory(getResourcePath("typeChecker"));
+    assertEquals(BatchTypeChecker.findJavaFiles(getResourcePath("typeChecker")).size(),
+        results.size());
+    for (Result result : results) {
+      String fileName = result.getPath().getFileName().toString();
+      Verdict expected = fileName.startsWith("should_proveTypeSafe")
+          ? Verdict.TYPE_SAFE : Verdict.NOT_TYPE_SAFE;
+      assertEquals(expected, result.getVerdict(), fileName);
+    }
+  }
+
+  @Test
+  @DisplayName("Should give the same verdicts and the first failure when failing fast")
+  void should_giveFirstFailure_when_failingFast() throws Exception {
+    checker.setFailFast(true);
+    List<Result> results = checker.checkDirectory(getResourcePath("typeChecker"));
+    for (Result result : results) {
+      String fileName = result.getPath().getFileName().toString();
+      boolean expected = fileName.startsWith("should_proveTypeSafe");
+      assertEquals(expected ? Verdict.TYPE_SAFE : Verdict.NOT_TYPE_SAFE, result.getVerdict(),
+          fileName);
+      assertEquals(expected ? 0 : 1, result.getDiagnostics().size(), fileName);
+    }
+  }
+
+  @Test
+  @DisplayName("Should parse a batch as file by file and check the parsed units when given many files")
+  void should_parseBatchAsFileByFile_when_givenManyFiles(@TempDir Path directory)
+      throws Exception {
+    List<Path> files = new ArrayList<>(BatchTypeChecker.findJavaFiles(getResourcePath("typeChecker")));
+    files.add(directory.resolve("Missing.java"));
+    SourceParser parser = new SourceParser();
+    CompilationUnit[] compilationUnits = parser.parseAll(files);
+    assertEquals(files.size(), compilationUnits.length);
+    assertNull(compilationUnits[files.size() - 1]);
+    for (int i = 0; i < files.size() - 1; ++i) {
+      CompilationUnit compilationUnit = parser.parse(files.get(i));
+      assertTrue(compilationUnit.subtreeMatch(new ASTMatcher(), compilationUnits[i]));
+      assertEquals(checker.check(files.get(i)).getVerdict(),
+          checker.check(files.get(i), compilationUnits[i], false).getVerdict());
+    }
+    assertEquals(Verdict.FAILED, checker.check(files).get(files.size() - 1).getVerdict());
+  }
+
+  @Test
+  @DisplayName("Should report failure and continue when given unsupported programs")
+  void should_reportFailure_when_givenUnsupportedPrograms() throws Exception {
+    List<Result> results = checker.checkDirectory(getResourcePath("symbolTable"));
+    for (Result result : results) {
+      String fileName = result.getPath().getFileName().toString();
+      if (fileName.startsWith("should_throwException")) {
+        assertEquals(Verdict.FAILED, result.getVerdict(), fileName);
+        assertFalse(result.getDiagnostics().isEmpty(), fileName);
+      }
+    }
+  }
+
+  @Test
+  @DisplayName("Should check each file against every class when checking a project")
+  void should_checkEachFileAgainstEveryClass_when_checkingProject(@TempDir Path directory)
+      throws Exception {
+    Path a = directory.resolve("A.java");
+    Path b = directory.resolve("B.java");
+    Path c = directory.resolve("C.java");
+    Files.write(a, "public class A {\n  B b;\n  void m() {\n    A a = null;\n  }\n}\n"
+        .getBytes(StandardCharsets.UTF_8));
+    Files.write(b, ("public class B {\n  A a;\n  int n() {\n    return true;\n  }\n}\n"
+        + "class D {\n}\n").getBytes(StandardCharsets.UTF_8));
+    Files.write(c, "public class A {\n}\n".getBytes(StandardCharsets.UTF_8));
+
+    List<Result> results = checker.checkProject(List.of(a, b, c));
+    assertEquals(3, results.size());
+    assertEquals(Verdict.TYPE_SAFE, results.get(0).getVerdict());
+    assertEquals(Verdict.NOT_TYPE_SAFE, results.get(1).getVerdict());
+    assertEquals(Verdict.FAILED, results.get(2).getVerdict());
+    assertEquals("class A is already declared", results.get(2).getMessage());
+
+    results = checker.checkProject(List.of(c, b, a));
+    assertEquals(Verdict.TYPE_SAFE, results.get(0).getVerdict());
+    assertEquals(Verdict.FAILED, results.get(2).getVerdict());
+  }
+
+  @Test
+  @DisplayName("Should fail only the file closing a cycle when classes extend each other across files")
+  void should_failOnlyFileClosingCycle_when_classesExtendEachOtherAcrossFiles(
+      @TempDir Path directory) throws Exception {
+    Path a = directory.resolve("A.java");
+    Path b = directory.resolve("B.java");
+    Path e = directory.resolve("E.java");
+    Files.write(a, "public class A extends B {\n}\n".getBytes(StandardCharsets.UTF_8));
+    Files.write(b, "public class B extends A {\n}\n".getBytes(StandardCharsets.UTF_8));
+    Files.write(e, "public class E {\n  void m() {\n    int i = 1;\n  }\n}\n"
+        .getBytes(StandardCharsets.UTF_8));
+
+    List<Result> results = checker.checkProject(List.of(a, b, e));
+    assertEquals(Verdict.TYPE_SAFE, results.get(0).getVerdict());
+    assertEquals(Verdict.FAILED, results.get(1).getVerdict());
+    assertEquals("cyclic inheritance involving B", results.get(1).getMessage());
+    assertEquals(Verdict.TYPE_SAFE, results.get(2).getVerdict());
+  }
+
+  @Test
+  @DisplayName("Should report diagnostics when checking a project with an unsupported file")
+  void should_reportDiagnostics_when_checkingProjectWithUnsupportedFile(
+      @TempDir Path directory) throws Exception {
+    Path a = directory.resolve("A.java");
+    Path b = directory.resolve("B.java");
+    Files.write(a, "public class A {\n  int x, y;\n}\n".getBytes(StandardCharsets.UTF_8));
+    Files.write(b, "public class B {\n  void m() {\n    int i = true;\n    boolean f = 1;\n  }\n}\n"
+        .getBytes(StandardCharsets.UTF_8));
+
+    checker.setDiagnosticsEnabled(true);
+    List<Result> results = checker.checkProject(List.of(a, b));
+    assertEquals(Verdict.FAILED, results.get(0).getVerdict());
+    assertEquals("only one fragment supported", results.get(0).getMessage());
+    assertEquals(1, results.get(0).getDiagnostics().size());
+    assertEquals(Verdict.NOT_TYPE_SAFE, results.get(1).getVerdict());
+    assertEquals(2, results.get(1).getDiagnostics().size());
+  }
+
+  @Test
+  @DisplayName("Should resolve superclasses in other files when checking a project")
+  void should_resolveSuperclassesInOtherFiles_when_checkingProject() throws Exception {
+    List<Path> files = BatchTypeChecker.findJavaFiles(getResourcePath("project"));
+    List<Result> results = checker.checkProject(files);
+    assertEquals(4, results.size());
+    assertEquals(Verdict.TYPE_SAFE, results.get(0).getVerdict());
+    assertEquals(Verdict.TYPE_SAFE, results.get(1).getVerdict());
+    assertEquals(Verdict.TYPE_SAFE, results.get(2).getVerdict());
+    assertEquals(Verdict.NOT_TYPE_SAFE, results.get(3).getVerdict());
+
+    // alone, C does not know that B extends A
+    assertEquals(Verdict.NOT_TYPE_SAFE, checker.check(files.get(2)).getVerdict());
+  }
+
+  @Test
+  @DisplayName("Should check only the changed method when one method body changed")
+  void should_checkOnlyChangedMethod_when_oneMethodBodyChanged(@TempDir Path directory)
+      throws Exception {
+    Path cacheDirectory = directory.resolve("cache");
+    Path file = directory.resolve("C.java");
+    String source = "public class C {\n"
+        + "  void m() {\n    int i = 1;\n  }\n"
+        + "  void n() {\n    int j = 2;\n  }\n"
+        + "  void o() {\n    boolean k = true;\n  }\n"
+        + "}\n";
+    Files.write(file, source.getBytes(StandardCharsets.UTF_8));
+
+    try (TypeCheckCache cache = new TypeCheckCache(cacheDirectory, 100)) {
+      BatchTypeChecker cachingChecker = new BatchTypeChecker(ForkJoinPool.commonPool(), cache);
+      assertEquals(Verdict.TYPE_SAFE, cachingChecker.check(file).getVerdict());
+      assertEquals(4, cache.size());
+      assertEquals(Verdict.TYPE_SAFE, cachingChecker.check(file).getVerdict());
+      assertEquals(4, cache.size());
+
+      Files.write(file, source.replace("int j = 2;", "int j = false;")
+          .getBytes(StandardCharsets.UTF_8));
+      assertEquals(Verdict.NOT_TYPE_SAFE, cachingChecker.check(file).getVerdict());
+      assertEquals(6, cache.size());
+    }
+
+    try (TypeCheckCache cache = new TypeCheckCache(cacheDirectory, 100)) {
+      assertEquals(6, cache.size());
+      BatchTypeChecker cachingChecker = new BatchTypeChecker(ForkJoinPool.commonPool(), cache);
+      assertEquals(Verdict.NOT_TYPE_SAFE, cachingChecker.check(file).getVerdict());
+      assertEquals(6, cache.size());
+    }
+  }
+
+  @Test
+  @DisplayName("Should recheck methods only when a declared type changes")
+  void should_recheckMethodsOnly_when_declaredTypeChanges(@TempDir Path directory)
+      throws Exception {
+    Path file = directory.resolve("C.java");
+    String source = "public class C {\n  int f;\n  void m(int i) {\n    int j = i;\n  }\n}\n";
+    try (TypeCheckCache cache = new TypeCheckCache(directory.resolve("cache"), 100)) {
+      BatchTypeChecker cachingChecker = new BatchTypeChecker(ForkJoinPool.commonPool(), cache);
+      Files.write(file, source.getBytes(StandardCharsets.UTF_8));
+      assertEquals(Verdict.TYPE_SAFE, cachingChecker.check(file).getVerdict());
+      assertEquals(2, cache.size());
+
+      // only the file changes when a declaration is reformatted
+      Files.write(file, source.replace("int f;", "int   f ;").getBytes(StandardCharsets.UTF_8));
+      assertEquals(Verdict.TYPE_SAFE, cachingChecker.check(file).getVerdict());
+      assertEquals(3, cache.size());
+
+      Files.write(file, source.replace("int f;", "boolean f;").getBytes(StandardCharsets.UTF_8));
+      assertEquals(Verdict.TYPE_SAFE, cachingChecker.check(file).getVerdict());
+      assertEquals(5, cache.size());
+    }
+  }
+
+  @Test
+  @DisplayName("Should check again when a verdict was cached by an older checker")
+  void should_checkAgain_when_verdictCachedByOlderChecker(@TempDir Path directory)
+      throws Exception {
+    Path cacheDirectory = directory.resolve("cache");
+    Path file = directory.resolve("C.java");
+    Files.copy(getResourcePath("typeChecker/should_proveTypeSafe_when_givenSubclassInits.java"),
+        file);
+    String source = new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+    // before subclasses were supported "B b = c;" did not type check
+    try (TypeCheckCache cache = new TypeCheckCache(cacheDirectory, 100)) {
+      cache.putVerdict(TypeCheckCache.getVersionedKey("type-checking-1", source), false);
+    }
+
+    try (TypeCheckCache cache = new TypeCheckCache(cacheDirectory, 100)) {
+      BatchTypeChecker cachingChecker = new BatchTypeChecker(ForkJoinPool.commonPool(), cache);
+      assertEquals(1, cache.size());
+      assertEquals(Verdict.TYPE_SAFE, cachingChecker.check(file).getVerdict());
+      assertEquals(Boolean.TRUE, cache.getVerdict(TypeCheckCache.getKey(source)));
+    }
+  }
+
+  @Test
+  @DisplayName("Should evict least recently used verdicts when cache is over capacity")
+  void should_evictLeastRecentlyUsed_when_cacheOverCapacity(@TempDir Path directory)
+      throws Exception {
+    try (TypeCheckCache cache = new TypeCheckCache(directory, 2)) {
+      cache.putVerdict("a", true);
+      cache.putVerdict("b", false);
+      cache.getVerdict("a");
+      cache.putVerdict("c", true);
+      assertEquals(2, cache.size());
+      assertEquals(Boolean.TRUE, cache.getVerdict("a"));
+      assertEquals(null, cache.getVerdict("b"));
+    }
+  }
+
+  @Test
+  @DisplayName("Should reuse the cached proof when the file is unchanged")
+  void should_reuseCachedProof_when_fileUnchanged(@TempDir Path directory) throws Exception {
+    Path cacheDirectory = directory.resolve("cache");
+    Path file = directory.resolve("C.java");
+    Files.copy(getResourcePath("typeChecker/should_NotProveTypeSafe_when_givenBadInits.java"),
+        file);
+    String key =
+        TypeCheckCache.getKey(new String(Files.readAllBytes(file), StandardCharsets.UTF_8));
+    ProofTree proofTree = null;
+    try (TypeCheckCache cache = new TypeCheckCache(cacheDirectory, 1)) {
+      Result result = new BatchTypeChecker(ForkJoinPool.commonPool(), cache).check(file, true);
+      proofTree = result.getProofTree();
+      assertEquals(Verdict.NOT_TYPE_SAFE, result.getVerdict());
+      assertEquals(Boolean.FALSE, cache.getVerdict(key));
+    }
+
+    try (TypeCheckCache cache = new TypeCheckCache(cacheDirectory, 1)) {
+      Result result = new BatchTypeChecker(ForkJoinPool.commonPool(), cache).check(file, true);
+      assertEquals(Verdict.NOT_TYPE_SAFE, result.getVerdict());
+      assertEquals(proofTree.size(), result.getProofTree().size());
+      assertEquals(proofTree.getFailedJudgments(), result.getProofTree().getFailedJudgments());
+
+      cache.putVerdict("other", true);
+      assertNull(cache.getProof(key));
+      assertFalse(Files.exists(cacheDirectory.resolve(key + TypeCheckCache.PROOF_FILE_SUFFIX)));
+    }
+  }
+
+  @Test
+  @DisplayName("Should report phases, nodes, lookups, and scopes when given a metrics listener")
+  void should_reportMetrics_when_givenMetricsListener() throws Exception {
+    CheckMetrics metrics = new CheckMetrics();
+    checker.setMetricsListener(metrics);
+    Path file = getResourcePath("typeChecker/should_NotProveTypeSafe_when_givenBadInits.java");
+    assertEquals(Verdict.NOT_TYPE_SAFE, checker.check(file).getVerdict());
+
+    assertEquals(1, metrics.getPhaseCount(Phase.PARSE));
+    assertEquals(1, metrics.getPhaseCount(Phase.SYMBOL_TABLE));
+    assertEquals(1, metrics.getPhaseCount(Phase.TYPE_CHECK));
+    assertEquals(0, metrics.getPhaseCount(Phase.PROOF_ASSEMBLY));
+    assertEquals(4, metrics.getNodeCount(ASTNode.VARIABLE_DECLARATION_STATEMENT));
+    assertEquals(2, metrics.getNodeCount(ASTNode.METHOD_DECLARATION));
+    assertEquals(5, metrics.getLookups());
+    assertEquals(0, metrics.getMisses());
+    assertEquals(2, metrics.getMaxScopeDepth());
+
+    checker.checkSource("public class C { void m() { { int i = j; } } }", true);
+    assertEquals(1, metrics.getPhaseCount(Phase.PROOF_ASSEMBLY));
+    assertEquals(1, metrics.getMisses());
+    assertEquals(3, metrics.getMaxScopeDepth());
+    assertTrue(metrics.toJson().contains("\"VariableDeclarationStatement\": 5"));
+  }
+}
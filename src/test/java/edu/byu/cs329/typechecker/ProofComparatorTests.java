@@ -0,0 +1,113 @@
+package edu.byu.cs329.typechecker;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import edu.byu.cs329.utils.JavaSourceUtils;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+import org.eclipse.jdt.core.dom.ASTNode;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.DynamicContainer;
+import org.junit.jupiter.api.DynamicNode;
+import org.junit.jupiter.api.DynamicTest;
+import org.junit.jupiter.api.Test;
+import org.opentest4j.AssertionFailedError;
+
+@DisplayName("Tests for the ProofComparator")
+public class ProofComparatorTests {
+  private static final String EMPTY_METHOD_PROOF = String.join("\n",
+      "CompilationUnit :void",
+      "  class C:void",
+      "    method C.m:void",
+      "      B0:void",
+      "        true PASS",
+      "      void = void PASS",
+      "    void = void PASS",
+      "  void = void PASS");
+
+  private ProofTree getProofTree(final String fileName) {
+    ASTNode compilationUnit = JavaSourceUtils.getAstNodeFor(this, fileName);
+    ISymbolTable symbolTable = new SymbolTableBuilder().getSymbolTable(compilationUnit);
+    return new TypeCheckBuilder().getProofTree(symbolTable, compilationUnit);
+  }
+
+  private List<DynamicNode> getTests(final String fileName) {
+    ASTNode compilationUnit = JavaSourceUtils.getAstNodeFor(this, fileName);
+    ISymbolTable symbolTable = new SymbolTableBuilder().getSymbolTable(compilationUnit);
+    List<DynamicNode> tests = new ArrayList<>();
+    new TypeCheckBuilder().getTypeChecker(symbolTable, compilationUnit, tests);
+    return tests;
+  }
+
+  @Test
+  @DisplayName("Should match when given the expected proof as text")
+  void should_match_when_givenExpectedProofAsText() {
+    String fileName = "typeChecker/should_proveTypeSafe_when_givenEmptyMethod.java";
+    ProofComparator comparator = new ProofComparator(EMPTY_METHOD_PROOF);
+    assertEquals(8, comparator.size());
+    assertEquals(EMPTY_METHOD_PROOF + "\n", ProofComparator.format(getProofTree(fileName)));
+    comparator.assertMatches(getProofTree(fileName));
+    comparator.assertMatches(getTests(fileName));
+  }
+
+  @Test
+  @DisplayName("Should match when given the formatted proof of a failing program")
+  void should_match_when_givenFormattedProofOfFailingProgram() {
+    String fileName = "typeChecker/should_NotProveTypeSafe_when_givenBadInits.java";
+    ProofComparator comparator = new ProofComparator(ProofComparator.format(getProofTree(fileName)));
+    assertNull(comparator.getMismatch(getProofTree(fileName)));
+    assertNull(comparator.getMismatch(getTests(fileName)));
+  }
+
+  @Test
+  @DisplayName("Should report the path of the first mismatch when an outcome differs")
+  void should_reportPathOfFirstMismatch_when_outcomeDiffers() {
+    String fileName = "typeChecker/should_NotProveTypeSafe_when_givenBadInits.java";
+    String expected = ProofComparator.format(getProofTree(fileName))
+        .replaceFirst("int := nullType FAIL", "int := nullType PASS");
+    ProofComparator comparator = new ProofComparator(expected);
+    String mismatch = "/CompilationUnit :ERROR/class C:ERROR/method C.m:ERROR/B0:ERROR/S0:ERROR"
+        + "/int := nullType: expected PASS but was FAIL";
+    assertEquals(mismatch, comparator.getMismatch(getProofTree(fileName)));
+    assertEquals(mismatch, comparator.getMismatch(getTests(fileName)));
+    assertThrows(AssertionFailedError.class, () -> comparator.assertMatches(getTests(fileName)));
+  }
+
+  @Test
+  @DisplayName("Should report the child counts when a judgment is missing")
+  void should_reportChildCounts_when_judgmentIsMissing() {
+    String fileName = "typeChecker/should_proveTypeSafe_when_givenEmptyMethod.java";
+    ProofComparator comparator =
+        new ProofComparator(EMPTY_METHOD_PROOF.replace("\n    void = void PASS\n", "\n"));
+    String mismatch = "/CompilationUnit :void/class C:void: expected 1 children but was 2";
+    assertEquals(mismatch, comparator.getMismatch(getProofTree(fileName)));
+    assertEquals(mismatch, comparator.getMismatch(getTests(fileName)));
+  }
+
+  @Test
+  @DisplayName("Should not expand or run later tests when an earlier name differs")
+  void should_notExpandOrRunLaterTests_when_earlierNameDiffers() {
+    List<DynamicNode> tests = new ArrayList<>();
+    tests.add(DynamicContainer.dynamicContainer("CompilationUnit :void", Stream.of(
+        DynamicContainer.dynamicContainer("class D:void", Stream.generate(() -> {
+          throw new IllegalStateException("expanded");
+        })),
+        DynamicTest.dynamicTest("void = void", () -> {
+          throw new IllegalStateException("ran");
+        }))));
+    assertEquals("/CompilationUnit :void: expected \"class C:void\" but was \"class D:void\"",
+        new ProofComparator(EMPTY_METHOD_PROOF).getMismatch(tests));
+  }
+
+  @Test
+  @DisplayName("Should throw exception when the expected proof is badly indented")
+  void should_throwException_when_expectedProofIsBadlyIndented() {
+    assertThrows(RuntimeException.class,
+        () -> new ProofComparator("CompilationUnit :void\n    class C:void"));
+    assertThrows(RuntimeException.class,
+        () -> new ProofComparator("CompilationUnit :void\n   class C:void"));
+  }
+}
@@ -0,0 +1,158 @@
+package edu.byu.cs329.typechecker;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import edu.byu.cs329.utils.JavaSourceUtils;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import org.eclipse.jdt.core.dom.ASTNode;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+@DisplayName("Tests for the ProofTreeWriter and readers")
+public class ProofTreeWriterTests {
+
+  private ProofTree getProofTree(final String fileName) {
+    ASTNode compilationUnit = JavaSourceUtils.getAstNodeFor(this, fileName);
+    ISymbolTable symbolTable = new SymbolTableBuilder().getSymbolTable(compilationUnit);
+    return new TypeCheckBuilder().getProofTree(symbolTable, compilationUnit);
+  }
+
+  private static byte[] write(ProofTree proofTree) throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (ProofTreeWriter writer = new ProofTreeWriter(bytes)) {
+      writer.write(proofTree);
+    }
+    return bytes.toByteArray();
+  }
+
+  private static List<String> getNodes(ProofTree proofTree) {
+    List<String> nodes = new ArrayList<>();
+    for (int node = 0; node < proofTree.size(); ++node) {
+      nodes.add(proofTree.getParent(node) + " " + proofTree.getDisplayName(node)
+          + (proofTree.passes(node) ? " PASS" : " FAIL"));
+    }
+    return nodes;
+  }
+
+  @Test
+  @DisplayName("Should read the same proof when given a written proof with bad inits")
+  void should_readSameProof_when_givenWrittenProofWithBadInits() throws Exception {
+    ProofTree proofTree =
+        getProofTree("typeChecker/should_NotProveTypeSafe_when_givenBadInits.java");
+    try (ProofTreeReader reader = new ProofTreeReader(
+        new ByteArrayInputStream(write(proofTree)))) {
+      ProofTree readProofTree = reader.read();
+      assertFalse(reader.isTypeSafe());
+      assertEquals(getNodes(proofTree), getNodes(readProofTree));
+    }
+  }
+
+  @Test
+  @DisplayName("Should read the same proof when given a written generated program")
+  void should_readSameProof_when_givenWrittenGeneratedProgram() throws Exception {
+    ProgramGenerator.Program program = new ProgramGenerator(7, 3, 5, 2, 5, 4).generate(true);
+    ASTNode compilationUnit = new BatchTypeChecker().parse(program.getSource());
+    ISymbolTable symbolTable = new SymbolTableBuilder().getSymbolTable(compilationUnit);
+    ProofTree proofTree = new TypeCheckBuilder().getProofTree(symbolTable, compilationUnit);
+    try (ProofTreeReader reader = new ProofTreeReader(
+        new ByteArrayInputStream(write(proofTree)))) {
+      ProofTree readProofTree = reader.read();
+      assertTrue(reader.isTypeSafe());
+      assertEquals(getNodes(proofTree), getNodes(readProofTree));
+    }
+  }
+
+  @Test
+  @DisplayName("Should find failed judgments when given a mapped proof with bad inits")
+  void should_findFailedJudgments_when_givenMappedProofWithBadInits(@TempDir Path directory)
+      throws Exception {
+    ProofTree proofTree =
+        getProofTree("typeChecker/should_NotProveTypeSafe_when_givenBadInits.java");
+    Path file = directory.resolve("proof.bin");
+    Files.write(file, write(proofTree));
+
+    MappedProofTreeReader reader = new MappedProofTreeReader(file);
+    assertFalse(reader.isTypeSafe());
+    assertEquals(proofTree.size(), reader.size());
+    List<String> failures = reader.getFailedJudgments();
+    assertFalse(failures.isEmpty());
+    assertEquals(proofTree.getFailedJudgments(), failures);
+  }
+
+  @Test
+  @DisplayName("Should find no failed judgments when given a mapped type safe proof")
+  void should_findNoFailedJudgments_when_givenMappedTypeSafeProof(@TempDir Path directory)
+      throws Exception {
+    ProofTree proofTree =
+        getProofTree("typeChecker/should_proveTypeSafe_when_givenManyMethods.java");
+    Path file = directory.resolve("proof.bin");
+    Files.write(file, write(proofTree));
+
+    MappedProofTreeReader reader = new MappedProofTreeReader(file);
+    assertTrue(reader.isTypeSafe());
+    assertTrue(reader.getFailedJudgments().isEmpty());
+  }
+
+  @Test
+  @DisplayName("Should read the verdict when given only a verdict")
+  void should_readVerdict_when_givenOnlyVerdict(@TempDir Path directory) throws Exception {
+    Path file = directory.resolve("verdict.bin");
+    try (OutputStream out = Files.newOutputStream(file);
+        ProofTreeWriter writer = new ProofTreeWriter(out)) {
+      writer.writeVerdict(true);
+    }
+
+    try (ProofTreeReader reader = new ProofTreeReader(Files.newInputStream(file))) {
+      assertEquals(0, reader.read().size());
+      assertTrue(reader.isTypeSafe());
+    }
+    assertTrue(new MappedProofTreeReader(file).isTypeSafe());
+  }
+
+  @Test
+  @DisplayName("Should throw IOException when given a file that is not a proof")
+  void should_throwIoException_when_givenFileThatIsNotProof(@TempDir Path directory)
+      throws Exception {
+    Path file = directory.resolve("source.bin");
+    Files.write(file, "public class C {}".getBytes());
+    assertThrows(IOException.class, () -> new MappedProofTreeReader(file));
+    assertThrows(IOException.class,
+        () -> new ProofTreeReader(Files.newInputStream(file)).read());
+  }
+
+  @Test
+  @DisplayName("Should throw IOException when given a string with a corrupted length")
+  void should_throwIoException_when_givenStringWithCorruptedLength(@TempDir Path directory)
+      throws Exception {
+    byte[][] lengths = {
+        {(byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x07},
+        {(byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x0F},
+        {0x02}
+    };
+    for (byte[] length : lengths) {
+      ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+      bytes.write(ProofTreeWriter.MAGIC);
+      bytes.write(new byte[] {ProofTreeWriter.VERSION, 0, 1});
+      bytes.write(ProofTree.Kind.LOOKUP.ordinal());
+      bytes.write(ProofTreeWriter.NEW_REF);
+      bytes.write(length);
+      bytes.write('i');
+      Path file = directory.resolve("corrupt.bin");
+      Files.write(file, bytes.toByteArray());
+      assertThrows(IOException.class,
+          () -> new ProofTreeReader(new ByteArrayInputStream(bytes.toByteArray())).read());
+      assertThrows(IOException.class, () -> new MappedProofTreeReader(file).getFailedJudgments());
+    }
+  }
+}
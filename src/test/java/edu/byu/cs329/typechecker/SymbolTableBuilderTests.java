@@ -2,9 +2,16 @@ package edu.byu.cs329.typechecker;
 
 import static org.junit.jupiter.api.Assertions.assertAll;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import edu.byu.cs329.utils.JavaSourceUtils;
 import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.ArrayList;
 import java.util.List;
 
 import org.eclipse.jdt.core.dom.ASTNode;
@@ -90,6 +97,35 @@ public class SymbolTableBuilderTests {
     );
   }
 
+  @Test
+  @DisplayName("Should intern field types when all fields correctly declared")
+  void should_internFieldTypes_when_allFieldsCorrectlyDeclared() {
+    ASTNode compilationUnit = JavaSourceUtils.getAstNodeFor(this, "symbolTable/should_addAllFields_when_allFieldsCorrectlyDeclared.java");
+    ISymbolTable st = stb.getSymbolTable(compilationUnit);
+    assertAll(
+        () -> assertSame(TypeId.INT, st.getTypeId("should_addAllFields_when_allFieldsCorrectlyDeclared.i")),
+        () -> assertSame(st.getTypeScope().of("Integer"), st.getTypeId("should_addAllFields_when_allFieldsCorrectlyDeclared.m")),
+        () -> assertSame(TypeId.ERROR, st.getTypeId("should_addAllFields_when_allFieldsCorrectlyDeclared.x"))
+    );
+  }
+
+  @Test
+  @DisplayName("Should intern types per symbol table when given the same program twice")
+  void should_internTypesPerSymbolTable_when_givenSameProgramTwice() {
+    ASTNode compilationUnit = JavaSourceUtils.getAstNodeFor(this, "symbolTable/should_addAllFields_when_allFieldsCorrectlyDeclared.java");
+    ISymbolTable first = stb.getSymbolTable(compilationUnit);
+    ISymbolTable second = stb.getFlatSymbolTable(compilationUnit);
+    TypeId type = first.getTypeId("should_addAllFields_when_allFieldsCorrectlyDeclared.m");
+    assertAll(
+        () -> assertSame(type, first.getTypeScope().find("Integer")),
+        () -> assertNotSame(type, second.getTypeId("should_addAllFields_when_allFieldsCorrectlyDeclared.m")),
+        () -> assertEquals(type.getName(), second.getType("should_addAllFields_when_allFieldsCorrectlyDeclared.m")),
+        () -> assertNull(TypeId.find("Integer")),
+        () -> assertNull(first.getTypeScope().find("Unused")),
+        () -> assertSame(TypeId.INT, second.getTypeScope().of(TypeCheckTypes.INT))
+    );
+  }
+
   @Test
   @DisplayName("Should create parameter type maps when methods defined")
   void should_createParameterTypeMaps_when_methodsExist() {
@@ -113,6 +149,125 @@ public class SymbolTableBuilderTests {
     );  
   }
 
+  @Test
+  @DisplayName("Should look up members by class when methods and fields defined")
+  void should_lookUpMembersByClass_when_methodsAndFieldsExist() {
+    ASTNode compilationUnit = JavaSourceUtils.getAstNodeFor(this, "symbolTable/should_createParameterTypeMaps_when_methodsExist.java");
+    String className = "should_createParameterTypeMaps_when_methodsExist";
+    for (ISymbolTable st : List.of(stb.getSymbolTable(compilationUnit), stb.getFlatSymbolTable(compilationUnit))) {
+      List<SimpleImmutableEntry<String, TypeId>> typeListForM = st.getParameterTypeIdList(className, "m");
+      assertAll(
+          () -> assertSame(TypeId.VOID, st.getMethodTypeId(className, "m")),
+          () -> assertSame(TypeId.INT, st.getMethodTypeId(className, "n")),
+          () -> assertEquals(st.getParameterTypeIdList(TypeCheckUtils.buildName(className, "m")), typeListForM),
+          () -> assertEquals(0, st.getParameterTypeIdList(className, "n").size()),
+          () -> assertSame(TypeId.ERROR, st.getMethodTypeId(className, "x")),
+          () -> assertSame(TypeId.ERROR, st.getMethodTypeId("A", "m")),
+          () -> assertSame(TypeId.ERROR, st.getFieldTypeId(className, "m")),
+          () -> assertEquals(null, st.getParameterTypeIdList("A", "m"))
+      );
+    }
+
+    compilationUnit = JavaSourceUtils.getAstNodeFor(this, "symbolTable/should_addAllFields_when_allFieldsCorrectlyDeclared.java");
+    ISymbolTable st = stb.getFlatSymbolTable(compilationUnit);
+    String fieldClassName = "should_addAllFields_when_allFieldsCorrectlyDeclared";
+    assertAll(
+        () -> assertSame(TypeId.INT, st.getFieldTypeId(fieldClassName, "i")),
+        () -> assertSame(st.getTypeScope().of("Integer"), st.getFieldTypeId(fieldClassName, "m")),
+        () -> assertSame(TypeId.ERROR, st.getFieldTypeId(fieldClassName, "x"))
+    );
+  }
+
+  @Test
+  @DisplayName("Should look up members of every class when compilation units share a global table")
+  void should_lookUpMembersOfEveryClass_when_compilationUnitsShareGlobalTable() {
+    GlobalSymbolTable globalSymbolTable = new GlobalSymbolTable();
+    for (String name : List.of("should_throwException_when_programDefinesTwoClasses", "should_addAllFields_when_allFieldsCorrectlyDeclared", "should_createParameterTypeMaps_when_methodsExist")) {
+      ASTNode compilationUnit = JavaSourceUtils.getAstNodeFor(this, "symbolTable/" + name + ".java");
+      stb.addToGlobalSymbolTable(compilationUnit, globalSymbolTable);
+    }
+    ISymbolTable st = globalSymbolTable.getSymbolTable();
+    assertAll(
+        () -> assertEquals(4, globalSymbolTable.getClassCount()),
+        () -> assertTrue(globalSymbolTable.containsClass("should_throwAssertion_when_programDefinesTwoClasses1")),
+        () -> assertSame(TypeId.INT, st.getFieldTypeId("should_addAllFields_when_allFieldsCorrectlyDeclared", "i")),
+        () -> assertSame(TypeId.INT, st.getMethodTypeId("should_createParameterTypeMaps_when_methodsExist", "n")),
+        () -> assertSame(TypeId.INT, st.getTypeId("should_addAllFields_when_allFieldsCorrectlyDeclared.j"))
+    );
+
+    ASTNode duplicate = JavaSourceUtils.getAstNodeFor(this, "symbolTable/should_addAllFields_when_allFieldsCorrectlyDeclared.java");
+    assertThrows(RuntimeException.class, () -> stb.addToGlobalSymbolTable(duplicate, globalSymbolTable));
+    assertEquals(4, globalSymbolTable.getClassCount());
+  }
+
+  @Test
+  @DisplayName("Should build the subtype relation when classes extend each other")
+  void should_buildSubtypeRelation_when_classesExtendEachOther() {
+    GlobalSymbolTable globalSymbolTable = new GlobalSymbolTable();
+    ASTNode compilationUnit = JavaSourceUtils.getAstNodeFor(this, "symbolTable/should_buildHierarchy_when_classesExtendEachOther.java");
+    stb.addToGlobalSymbolTable(compilationUnit, globalSymbolTable);
+    TypeHierarchy hierarchy = globalSymbolTable.getSymbolTable().getTypeHierarchy();
+    TypeScope typeScope = globalSymbolTable.getTypeScope();
+    TypeId a = typeScope.of("A");
+    TypeId b = typeScope.of("B");
+    TypeId c = typeScope.of("C");
+    assertAll(
+        () -> assertSame(hierarchy, globalSymbolTable.getTypeHierarchy()),
+        () -> assertTrue(hierarchy.isSubtype(c, a)),
+        () -> assertTrue(hierarchy.isSubtype(c, b)),
+        () -> assertTrue(hierarchy.isSubtype(b, a)),
+        () -> assertTrue(hierarchy.isSubtype(a, a)),
+        () -> assertFalse(hierarchy.isSubtype(a, c)),
+        () -> assertTrue(hierarchy.isAssignmentCompatible(a, c)),
+        () -> assertTrue(hierarchy.isAssignmentCompatible(a, TypeId.NULL)),
+        () -> assertFalse(hierarchy.isAssignmentCompatible(c, a)),
+        () -> assertFalse(hierarchy.isAssignmentCompatible(TypeId.INT, c)),
+        () -> assertFalse(TypeHierarchy.EMPTY.isAssignmentCompatible(a, c))
+    );
+  }
+
+  @Test
+  @DisplayName("Should record the cycle when classes extend each other in a cycle")
+  void should_recordCycle_when_classesExtendEachOtherInCycle() {
+    ASTNode compilationUnit = JavaSourceUtils.getAstNodeFor(this, "symbolTable/should_recordCycle_when_classesExtendEachOther.java");
+    List<Diagnostic> diagnostics = new ArrayList<>();
+    ISymbolTable st = stb.getValidatedSymbolTable(compilationUnit, diagnostics);
+    assertAll(
+        () -> assertEquals(2, diagnostics.size()),
+        () -> assertEquals(new Diagnostic(3, 17, "cyclic inheritance involving A"), diagnostics.get(1)),
+        () -> assertFalse(st.getTypeHierarchy().isSubtype(st.getTypeScope().of("A"), st.getTypeScope().of("B")))
+    );
+    assertThrows(RuntimeException.class, () -> stb.addToGlobalSymbolTable(compilationUnit, new GlobalSymbolTable()));
+  }
+
+  @Test
+  @DisplayName("Should record each unsupported construct and keep the rest when validating")
+  void should_recordUnsupportedConstructs_when_validating() {
+    for (String name : List.of("should_throwException_when_programHasImports", "should_throwException_when_programDefinesTwoClasses", "should_throwException_when_programDefinesInnerClass", "should_throwException_when_multipleVariablesInFragments", "should_throwException_when_modifiersNotPrivatePublicProtected", "should_throwException_when_typeNameIsNotSimple", "should_throwException_when_primitiveTypeIsNotIntOrBoolean", "should_throwException_when_methodsHaveSameNameButDifferentParameterTypes", "should_throwException_when_classExtendsItself")) {
+      ASTNode compilationUnit = JavaSourceUtils.getAstNodeFor(this, "symbolTable/" + name + ".java");
+      List<Diagnostic> diagnostics = new ArrayList<>();
+      assertNotNull(stb.getValidatedSymbolTable(compilationUnit, diagnostics));
+      assertFalse(diagnostics.isEmpty(), name);
+      RuntimeException exception = assertThrows(RuntimeException.class, () -> stb.getSymbolTable(compilationUnit));
+      assertEquals(exception.getMessage(), diagnostics.get(0).getMessage(), name);
+    }
+
+    ASTNode compilationUnit = JavaSourceUtils.getAstNodeFor(this, "symbolTable/should_throwException_when_methodsHaveSameNameButDifferentParameterTypes.java");
+    List<Diagnostic> diagnostics = new ArrayList<>();
+    ISymbolTable st = stb.getValidatedSymbolTable(compilationUnit, diagnostics);
+    String className = "should_throwAssertion_when_methodsHaveSameNameButDifferentParameterTypes";
+    assertAll(
+        () -> assertEquals(1, diagnostics.size()),
+        () -> assertEquals(5, diagnostics.get(0).getLine()),
+        () -> assertSame(TypeId.INT, st.getParameterTypeIdList(className, "m").get(0).getValue())
+    );
+
+    compilationUnit = JavaSourceUtils.getAstNodeFor(this, "symbolTable/should_addAllFields_when_allFieldsCorrectlyDeclared.java");
+    diagnostics.clear();
+    stb.getValidatedSymbolTable(compilationUnit, diagnostics);
+    assertTrue(diagnostics.isEmpty());
+  }
+
   @Test
   @DisplayName("Should add and remove scopes when adding and removing locals")
   void should_addAndRemoveScopes_when_addingAndRemovingLocals() {
@@ -139,4 +294,108 @@ public class SymbolTableBuilderTests {
       st.addLocal("i", "Integer");
     });
   }
+
+  @Test
+  @DisplayName("Should add and remove flat scopes when adding and removing locals")
+  void should_addAndRemoveFlatScopes_when_addingAndRemovingLocals() {
+    ASTNode compilationUnit = JavaSourceUtils.getAstNodeFor(this, "symbolTable/should_addAllFields_when_allFieldsCorrectlyDeclared.java");
+    ISymbolTable st = stb.getFlatSymbolTable(compilationUnit);
+    st.pushScope();
+    st.addLocal("i", "int");
+    st.pushScope();
+    st.addLocal("j", "Integer");
+    assertEquals(TypeCheckTypes.INT, st.getType("i"));
+    assertEquals("Integer", st.getType("j"));
+    st.popScope();
+    assertEquals(TypeCheckTypes.INT, st.getType("i"));
+    assertEquals(TypeCheckTypes.ERROR, st.getType("j"));
+    st.popScope();
+    assertEquals(TypeCheckTypes.ERROR, st.getType("i"));
+    assertEquals(TypeCheckTypes.INT, st.getType("should_addAllFields_when_allFieldsCorrectlyDeclared.i"));
+  }
+
+  @Test
+  @DisplayName("Should find each live local when many flat scopes are pushed and popped")
+  void should_findEachLiveLocal_when_manyFlatScopesArePushedAndPopped() {
+    ASTNode compilationUnit = JavaSourceUtils.getAstNodeFor(this, "symbolTable/should_addAllFields_when_allFieldsCorrectlyDeclared.java");
+    ISymbolTable st = stb.getFlatSymbolTable(compilationUnit);
+    st.pushScope();
+    // "Aa" and "BB" have the same hash code
+    st.addLocal("Aa", TypeId.INT);
+    for (int scope = 0; scope < 3; ++scope) {
+      st.pushScope();
+      st.addLocal("BB", TypeId.BOOL);
+      for (int i = 0; i < 1000; ++i) {
+        st.addLocal("v" + i, (i % 2 == 0) ? TypeId.INT : TypeId.BOOL);
+      }
+      for (int i = 0; i < 1000; ++i) {
+        assertSame((i % 2 == 0) ? TypeId.INT : TypeId.BOOL, st.getTypeId("v" + i));
+      }
+      assertSame(TypeId.BOOL, st.getTypeId("BB"));
+      st.popScope();
+      assertSame(TypeId.ERROR, st.getTypeId("v0"));
+      assertSame(TypeId.ERROR, st.getTypeId("BB"));
+      assertSame(TypeId.INT, st.getTypeId("Aa"));
+    }
+  }
+
+  @Test
+  @DisplayName("Should throw exception when adding duplicate local variables in flat scopes")
+  void should_throwException_when_addingDuplicateLocalVariablesInFlatScopes() {
+    ASTNode compilationUnit = JavaSourceUtils.getAstNodeFor(this, "symbolTable/should_addAllFields_when_allFieldsCorrectlyDeclared.java");
+    ISymbolTable st = stb.getFlatSymbolTable(compilationUnit);
+    assertThrows(RuntimeException.class, () -> {
+      st.pushScope();
+      st.addLocal("i", "int");
+      st.pushScope();
+      st.addLocal("i", "Integer");
+    });
+  }
+
+  @Test
+  @DisplayName("Should keep each snapshot unchanged when adding locals to persistent scopes")
+  void should_keepSnapshotsUnchanged_when_addingLocalsToPersistentScopes() {
+    ASTNode compilationUnit = JavaSourceUtils.getAstNodeFor(this, "symbolTable/should_addAllFields_when_allFieldsCorrectlyDeclared.java");
+    PersistentSymbolTable root = stb.getPersistentSymbolTable(compilationUnit);
+    PersistentSymbolTable.Cursor st = root.toSymbolTable();
+    st.pushScope();
+    st.addLocal("i", "int");
+    PersistentSymbolTable outer = st.snapshot();
+    st.pushScope();
+    st.addLocal("j", "Integer");
+    PersistentSymbolTable inner = st.snapshot();
+    st.popScope();
+    assertSame(outer, st.snapshot());
+    assertAll(
+        () -> assertEquals(TypeId.ERROR, root.getTypeId("i")),
+        () -> assertEquals(TypeId.INT, outer.getTypeId("i")),
+        () -> assertEquals(TypeId.ERROR, outer.getTypeId("j")),
+        () -> assertEquals(TypeId.INT, inner.getTypeId("i")),
+        () -> assertEquals("Integer", inner.getTypeId("j").getName()),
+        () -> assertEquals(2, inner.getScopeDepth()),
+        () -> assertEquals(TypeId.INT, inner.getTypeId("should_addAllFields_when_allFieldsCorrectlyDeclared.i")),
+        () -> assertThrows(RuntimeException.class, () -> inner.addLocal("i", TypeId.BOOL)),
+        () -> assertThrows(RuntimeException.class, () -> root.popScope()));
+  }
+
+  @Test
+  @DisplayName("Should find every local when many persistent locals share hash bits")
+  void should_findEveryLocal_when_manyPersistentLocalsShareHashBits() {
+    ASTNode compilationUnit = JavaSourceUtils.getAstNodeFor(this, "symbolTable/should_addAllFields_when_allFieldsCorrectlyDeclared.java");
+    PersistentSymbolTable st = stb.getPersistentSymbolTable(compilationUnit).pushScope();
+    List<PersistentSymbolTable> versions = new ArrayList<>();
+    // "Aa" and "BB" have the same hash code
+    st = st.addLocal("Aa", TypeId.INT).addLocal("BB", TypeId.BOOL);
+    for (int i = 0; i < 2000; ++i) {
+      versions.add(st);
+      st = st.addLocal("v" + i, (i % 2 == 0) ? TypeId.INT : TypeId.BOOL);
+    }
+    assertEquals(2002, st.size());
+    assertEquals(TypeId.INT, st.getTypeId("Aa"));
+    assertEquals(TypeId.BOOL, st.getTypeId("BB"));
+    for (int i = 0; i < 2000; ++i) {
+      assertEquals((i % 2 == 0) ? TypeId.INT : TypeId.BOOL, st.getTypeId("v" + i));
+      assertEquals(TypeId.ERROR, versions.get(i).getTypeId("v" + i));
+    }
+  }
 }
@@ -1,17 +1,32 @@
 package edu.byu.cs329.typechecker;
 
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import edu.byu.cs329.utils.JavaSourceUtils;
+import java.util.AbstractMap.SimpleImmutableEntry;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
 import java.util.stream.Stream;
 
 import org.eclipse.jdt.core.dom.ASTNode;
+import org.eclipse.jdt.core.dom.CompilationUnit;
+import org.eclipse.jdt.core.dom.MethodDeclaration;
+import org.eclipse.jdt.core.dom.TypeDeclaration;
+import org.eclipse.jdt.core.dom.VariableDeclarationFragment;
+import org.eclipse.jdt.core.dom.VariableDeclarationStatement;
 import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.DynamicContainer;
 import org.junit.jupiter.api.DynamicNode;
 import org.junit.jupiter.api.DynamicTest;
+import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.TestFactory;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -27,6 +42,91 @@ public class TypeCheckBuilderTests {
     TypeCheckBuilder typeCheckerBuilder = new TypeCheckBuilder();
     return typeCheckerBuilder.getTypeChecker(symbolTable, compilationUnit, tests);
   }
+
+  private boolean getParallelTypeChecker(final String fileName, List<DynamicNode> tests) {
+    ASTNode compilationUnit = JavaSourceUtils.getAstNodeFor(this, fileName);
+    SymbolTableBuilder symbolTableBuilder = new SymbolTableBuilder();
+    ISymbolTable symbolTable = symbolTableBuilder.getSymbolTable(compilationUnit);
+    TypeCheckBuilder typeCheckerBuilder = new TypeCheckBuilder(ForkJoinPool.commonPool());
+    return typeCheckerBuilder.getTypeChecker(symbolTable, compilationUnit, tests);
+  }
+
+  private static List<String> getProof(List<DynamicNode> tests) {
+    List<String> proof = new ArrayList<>();
+    addProof(tests.stream(), "", proof);
+    return proof;
+  }
+
+  private static void addProof(Stream<? extends DynamicNode> tests, String path,
+      List<String> proof) {
+    tests.forEach(test -> {
+      String name = path + "/" + test.getDisplayName();
+      if (test instanceof DynamicContainer) {
+        proof.add(name);
+        addProof(((DynamicContainer) test).getChildren(), name, proof);
+      } else {
+        proof.add(name + (passes((DynamicTest) test) ? " PASS" : " FAIL"));
+      }
+    });
+  }
+
+  private static boolean passes(DynamicTest test) {
+    try {
+      test.getExecutable().execute();
+      return true;
+    } catch (Throwable e) {
+      return false;
+    }
+  }
+
+  private boolean getLazyTypeChecker(final String fileName, List<DynamicNode> tests) {
+    ASTNode compilationUnit = JavaSourceUtils.getAstNodeFor(this, fileName);
+    SymbolTableBuilder symbolTableBuilder = new SymbolTableBuilder();
+    ISymbolTable symbolTable = symbolTableBuilder.getSymbolTable(compilationUnit);
+    TypeCheckBuilder typeCheckerBuilder = new TypeCheckBuilder();
+    return typeCheckerBuilder.getLazyTypeChecker(symbolTable, compilationUnit, tests);
+  }
+
+  private boolean getGeneratedTypeChecker(ProgramGenerator.Program program,
+      List<DynamicNode> tests) {
+    ASTNode compilationUnit = new BatchTypeChecker().parse(program.getSource());
+    SymbolTableBuilder symbolTableBuilder = new SymbolTableBuilder();
+    ISymbolTable symbolTable = symbolTableBuilder.getSymbolTable(compilationUnit);
+    TypeCheckBuilder typeCheckerBuilder = new TypeCheckBuilder();
+    return typeCheckerBuilder.getTypeChecker(symbolTable, compilationUnit, tests);
+  }
+
+  private boolean getLazyGeneratedTypeChecker(ProgramGenerator.Program program,
+      List<DynamicNode> tests) {
+    ASTNode compilationUnit = new BatchTypeChecker().parse(program.getSource());
+    SymbolTableBuilder symbolTableBuilder = new SymbolTableBuilder();
+    ISymbolTable symbolTable = symbolTableBuilder.getSymbolTable(compilationUnit);
+    TypeCheckBuilder typeCheckerBuilder = new TypeCheckBuilder();
+    return typeCheckerBuilder.getLazyTypeChecker(symbolTable, compilationUnit, tests);
+  }
+
+  private ProofTree getProofTree(ASTNode compilationUnit) {
+    SymbolTableBuilder symbolTableBuilder = new SymbolTableBuilder();
+    ISymbolTable symbolTable = symbolTableBuilder.getSymbolTable(compilationUnit);
+    TypeCheckBuilder typeCheckerBuilder = new TypeCheckBuilder();
+    return typeCheckerBuilder.getProofTree(symbolTable, compilationUnit);
+  }
+
+  private boolean isGeneratedTypeSafe(ProgramGenerator.Program program) {
+    ASTNode compilationUnit = new BatchTypeChecker().parse(program.getSource());
+    SymbolTableBuilder symbolTableBuilder = new SymbolTableBuilder();
+    ISymbolTable symbolTable = symbolTableBuilder.getFlatSymbolTable(compilationUnit);
+    TypeCheckBuilder typeCheckerBuilder = new TypeCheckBuilder();
+    return typeCheckerBuilder.isTypeSafe(symbolTable, compilationUnit);
+  }
+
+  private boolean isTypeSafe(final String fileName) {
+    ASTNode compilationUnit = JavaSourceUtils.getAstNodeFor(this, fileName);
+    SymbolTableBuilder symbolTableBuilder = new SymbolTableBuilder();
+    ISymbolTable symbolTable = symbolTableBuilder.getSymbolTable(compilationUnit);
+    TypeCheckBuilder typeCheckerBuilder = new TypeCheckBuilder();
+    return typeCheckerBuilder.isTypeSafe(symbolTable, compilationUnit);
+  }
  
   @TestFactory
   @DisplayName("Should prove type safe when given empty class")
@@ -99,4 +199,432 @@ public class TypeCheckBuilderTests {
     DynamicTest test = DynamicTest.dynamicTest("isNotTypeSafe", () -> assertFalse(isTypeSafe));
     return Arrays.asList((DynamicNode)test).stream();
   }
+
+  @Test
+  @DisplayName("Should prove type safe without proof when given compatible inits")
+  void should_proveTypeSafeWithoutProof_when_givenVariableDeclrationsWithCompatibleInits() {
+    String fileName = "typeChecker/should_proveTypeSafe_when_givenVariableDeclrationsWithCompatibleInits.java";
+    assertTrue(isTypeSafe(fileName));
+  }
+
+  @TestFactory
+  @DisplayName("Should prove type safe when given subclass inits")
+  Stream<DynamicNode> should_proveTypeSafe_when_givenSubclassInits() {
+    String fileName = "typeChecker/should_proveTypeSafe_when_givenSubclassInits.java";
+    List<DynamicNode> tests = new ArrayList<>();
+    boolean isTypeSafe = getTypeChecker(fileName, tests);
+    DynamicTest test = DynamicTest.dynamicTest("isTypeSafe", () -> assertTrue(isTypeSafe));
+    tests.add((DynamicNode)test);
+    return tests.stream();
+  }
+
+  @Test
+  @DisplayName("Should not prove type safe when given superclass init")
+  void should_NotProveTypeSafe_when_givenSuperclassInit() {
+    String fileName = "typeChecker/should_NotProveTypeSafe_when_givenSuperclassInit.java";
+    assertFalse(isTypeSafe(fileName));
+  }
+
+  @Test
+  @DisplayName("Should prove type safe when initializers are indirect subclasses")
+  void should_proveTypeSafe_when_initializersAreIndirectSubclasses() {
+    ASTNode compilationUnit = JavaSourceUtils.getAstNodeFor(this, "symbolTable/should_buildHierarchy_when_classesExtendEachOther.java");
+    GlobalSymbolTable globalSymbolTable = new GlobalSymbolTable();
+    new SymbolTableBuilder().addToGlobalSymbolTable(compilationUnit, globalSymbolTable);
+    ISymbolTable symbolTable = globalSymbolTable.getSymbolTable();
+    assertTrue(new TypeCheckBuilder().isTypeSafe(symbolTable, compilationUnit));
+    assertTrue(new TypeCheckBuilder(ForkJoinPool.commonPool()).isTypeSafe(symbolTable, compilationUnit));
+  }
+
+  @Test
+  @DisplayName("Should not prove type safe without proof when given bad inits")
+  void should_NotProveTypeSafeWithoutProof_when_givenBadInits() {
+    String fileName = "typeChecker/should_NotProveTypeSafe_when_givenBadInits.java";
+    assertFalse(isTypeSafe(fileName));
+  }
+
+  @TestFactory
+  @DisplayName("Should prove type safe when given many methods")
+  Stream<DynamicNode> should_proveTypeSafe_when_givenManyMethods() {
+    String fileName = "typeChecker/should_proveTypeSafe_when_givenManyMethods.java";
+    List<DynamicNode> tests = new ArrayList<>();
+    boolean isTypeSafe = getTypeChecker(fileName, tests);
+    DynamicTest test = DynamicTest.dynamicTest("isTypeSafe", () -> assertTrue(isTypeSafe));
+    tests.add((DynamicNode)test);
+    return tests.stream();
+  }
+
+  @Test
+  @DisplayName("Should build the same proof in parallel when given many methods")
+  void should_buildSameProofInParallel_when_givenManyMethods() {
+    String fileName = "typeChecker/should_proveTypeSafe_when_givenManyMethods.java";
+    List<DynamicNode> tests = new ArrayList<>();
+    List<DynamicNode> parallelTests = new ArrayList<>();
+    assertTrue(getTypeChecker(fileName, tests));
+    assertTrue(getParallelTypeChecker(fileName, parallelTests));
+    assertEquals(getProof(tests), getProof(parallelTests));
+  }
+
+  @Test
+  @DisplayName("Should not prove type safe in parallel when given bad init in one of many methods")
+  void should_NotProveTypeSafeInParallel_when_givenBadInitInOneOfManyMethods() {
+    String fileName = "typeChecker/should_NotProveTypeSafe_when_givenBadInitInOneOfManyMethods.java";
+    List<DynamicNode> tests = new ArrayList<>();
+    List<DynamicNode> parallelTests = new ArrayList<>();
+    assertFalse(getTypeChecker(fileName, tests));
+    assertFalse(getParallelTypeChecker(fileName, parallelTests));
+    assertEquals(getProof(tests), getProof(parallelTests));
+  }
+
+  @Test
+  @DisplayName("Should match generator verdict when given large generated programs")
+  void should_matchGeneratorVerdict_when_givenLargeGeneratedPrograms() {
+    for (long seed = 0; seed < 5; ++seed) {
+      ProgramGenerator generator = new ProgramGenerator(seed, 10, 20, 3, 20, 10);
+      for (boolean expected : new boolean[] {true, false}) {
+        ProgramGenerator.Program program = generator.generate(expected);
+        assertEquals(expected, isGeneratedTypeSafe(program), "seed " + seed);
+        assertEquals(expected, getGeneratedTypeChecker(program, new ArrayList<>()),
+            "seed " + seed);
+      }
+    }
+  }
+
+  @Test
+  @DisplayName("Should build the same proof lazily when given many methods")
+  void should_buildSameProofLazily_when_givenManyMethods() {
+    String fileName = "typeChecker/should_proveTypeSafe_when_givenManyMethods.java";
+    List<DynamicNode> tests = new ArrayList<>();
+    List<DynamicNode> lazyTests = new ArrayList<>();
+    assertTrue(getTypeChecker(fileName, tests));
+    assertTrue(getLazyTypeChecker(fileName, lazyTests));
+    assertEquals(getProof(tests), getProof(lazyTests));
+  }
+
+  @Test
+  @DisplayName("Should build the same proof lazily when given bad inits")
+  void should_buildSameProofLazily_when_givenBadInits() {
+    String fileName = "typeChecker/should_NotProveTypeSafe_when_givenBadInits.java";
+    List<DynamicNode> tests = new ArrayList<>();
+    List<DynamicNode> lazyTests = new ArrayList<>();
+    assertFalse(getTypeChecker(fileName, tests));
+    assertFalse(getLazyTypeChecker(fileName, lazyTests));
+    assertEquals(getProof(tests), getProof(lazyTests));
+  }
+
+  @Test
+  @DisplayName("Should report the same metrics and node types lazily when given bad inits")
+  void should_reportSameMetricsLazily_when_givenBadInits() {
+    String fileName = "typeChecker/should_NotProveTypeSafe_when_givenBadInits.java";
+    ASTNode compilationUnit = JavaSourceUtils.getAstNodeFor(this, fileName);
+    ISymbolTable symbolTable = new SymbolTableBuilder().getSymbolTable(compilationUnit);
+    CheckMetrics metrics = new CheckMetrics();
+    NodeTypes nodeTypes = new NodeTypes();
+    TypeCheckBuilder typeCheckBuilder = new TypeCheckBuilder();
+    typeCheckBuilder.setMetricsListener(metrics);
+    typeCheckBuilder.setNodeTypes(nodeTypes);
+    List<DynamicNode> tests = new ArrayList<>();
+    assertFalse(typeCheckBuilder.getTypeChecker(symbolTable, compilationUnit, tests));
+    getProof(tests);
+
+    CheckMetrics lazyMetrics = new CheckMetrics();
+    NodeTypes lazyNodeTypes = new NodeTypes();
+    TypeCheckBuilder lazyTypeCheckBuilder = new TypeCheckBuilder();
+    lazyTypeCheckBuilder.setMetricsListener(lazyMetrics);
+    lazyTypeCheckBuilder.setNodeTypes(lazyNodeTypes);
+    List<DynamicNode> lazyTests = new ArrayList<>();
+    assertFalse(lazyTypeCheckBuilder.getLazyTypeChecker(symbolTable, compilationUnit, lazyTests));
+    getProof(lazyTests);
+
+    String nanos = "\"nanos\": \\d+";
+    assertEquals(metrics.toJson().replaceAll(nanos, ""), lazyMetrics.toJson().replaceAll(nanos, ""));
+    assertEquals(5, lazyMetrics.getLookups());
+    assertEquals(nodeTypes.size(), lazyNodeTypes.size());
+  }
+
+  /**
+   * A symbol table written against the interface without forkClassScope.
+   */
+  private static ISymbolTable withoutFork(ISymbolTable symbolTable) {
+    return new ISymbolTable() {
+      @Override
+      public String getType(String name) {
+        return symbolTable.getType(name);
+      }
+
+      @Override
+      public List<SimpleImmutableEntry<String, String>> getParameterTypeList(String name) {
+        return symbolTable.getParameterTypeList(name);
+      }
+
+      @Override
+      public void pushScope() {
+        symbolTable.pushScope();
+      }
+
+      @Override
+      public void popScope() {
+        symbolTable.popScope();
+      }
+
+      @Override
+      public void addLocal(String name, String type) {
+        symbolTable.addLocal(name, type);
+      }
+    };
+  }
+
+  @Test
+  @DisplayName("Should build the same proof in parallel and lazily when the symbol table cannot fork")
+  void should_buildSameProof_when_symbolTableCannotFork() {
+    String fileName = "typeChecker/should_NotProveTypeSafe_when_givenBadInitInOneOfManyMethods.java";
+    ASTNode compilationUnit = JavaSourceUtils.getAstNodeFor(this, fileName);
+    ISymbolTable symbolTable = withoutFork(new SymbolTableBuilder().getSymbolTable(compilationUnit));
+    List<DynamicNode> tests = new ArrayList<>();
+    List<DynamicNode> parallelTests = new ArrayList<>();
+    List<DynamicNode> lazyTests = new ArrayList<>();
+    assertFalse(new TypeCheckBuilder().getTypeChecker(symbolTable, compilationUnit, tests));
+    assertFalse(new TypeCheckBuilder(ForkJoinPool.commonPool())
+        .getTypeChecker(symbolTable, compilationUnit, parallelTests));
+    assertFalse(new TypeCheckBuilder().getLazyTypeChecker(symbolTable, compilationUnit, lazyTests));
+    List<String> proof = getProof(tests);
+    assertEquals(proof, getProof(parallelTests));
+    assertEquals(proof, getProof(lazyTests));
+    assertEquals(TypeCheckTypes.ERROR, symbolTable.getType("i"));
+  }
+
+  @Test
+  @DisplayName("Should build the same proof lazily when given generated programs")
+  void should_buildSameProofLazily_when_givenGeneratedPrograms() {
+    ProgramGenerator generator = new ProgramGenerator(3, 3, 5, 2, 5, 4);
+    for (boolean expected : new boolean[] {true, false}) {
+      ProgramGenerator.Program program = generator.generate(expected);
+      List<DynamicNode> tests = new ArrayList<>();
+      List<DynamicNode> lazyTests = new ArrayList<>();
+      assertEquals(expected, getGeneratedTypeChecker(program, tests));
+      assertEquals(expected, getLazyGeneratedTypeChecker(program, lazyTests));
+      assertEquals(getProof(tests), getProof(lazyTests));
+    }
+  }
+
+  @Test
+  @DisplayName("Should build the same proof as a tree when given bad inits")
+  void should_buildSameProofAsTree_when_givenBadInits() {
+    String fileName = "typeChecker/should_NotProveTypeSafe_when_givenBadInits.java";
+    List<DynamicNode> tests = new ArrayList<>();
+    assertFalse(getTypeChecker(fileName, tests));
+    ProofTree proofTree = getProofTree(JavaSourceUtils.getAstNodeFor(this, fileName));
+    assertFalse(TypeCheckTypes.isVoidType(proofTree.getType(0)));
+    assertFalse(proofTree.passes(0));
+    assertEquals(getProof(tests), getProof(proofTree.toDynamicNodes()));
+    List<DynamicNode> lazyTests = new ArrayList<>();
+    assertFalse(getLazyTypeChecker(fileName, lazyTests));
+    assertEquals(getProof(lazyTests), getProof(proofTree.toDynamicNodes()));
+  }
+
+  @Test
+  @DisplayName("Should build the same proof tree in parallel when given bad init in one of many methods")
+  void should_buildSameProofTreeInParallel_when_givenBadInitInOneOfManyMethods() {
+    String fileName = "typeChecker/should_NotProveTypeSafe_when_givenBadInitInOneOfManyMethods.java";
+    ASTNode compilationUnit = JavaSourceUtils.getAstNodeFor(this, fileName);
+    ProofTree proofTree = getProofTree(compilationUnit);
+    ISymbolTable symbolTable = new SymbolTableBuilder().getSymbolTable(compilationUnit);
+    ProofTree parallelProofTree = new TypeCheckBuilder(ForkJoinPool.commonPool())
+        .getProofTree(symbolTable, compilationUnit);
+    assertFalse(parallelProofTree.isTypeSafe());
+    assertEquals(proofTree.size(), parallelProofTree.size());
+    assertEquals(proofTree.getFailedJudgments(), parallelProofTree.getFailedJudgments());
+    for (int node = 0; node < proofTree.size(); ++node) {
+      assertEquals(proofTree.getParent(node), parallelProofTree.getParent(node));
+      assertEquals(proofTree.getEnd(node), parallelProofTree.getEnd(node));
+      assertEquals(proofTree.passes(node), parallelProofTree.passes(node));
+      assertSame(parallelProofTree.getDisplayName(node), parallelProofTree.getDisplayName(node));
+    }
+  }
+
+  @Test
+  @DisplayName("Should stop at the first failure when failing fast")
+  void should_stopAtFirstFailure_when_failingFast() {
+    String fileName = "typeChecker/should_NotProveTypeSafe_when_givenBadInits.java";
+    ASTNode compilationUnit = JavaSourceUtils.getAstNodeFor(this, fileName);
+    ISymbolTable symbolTable = new SymbolTableBuilder().getSymbolTable(compilationUnit);
+    assertEquals(new Diagnostic(5, 5, "int := nullType"),
+        new TypeCheckBuilder().getFirstFailure(symbolTable, compilationUnit));
+
+    fileName = "typeChecker/should_NotProveTypeSafe_when_givenBadInitInOneOfManyMethods.java";
+    ASTNode manyMethods = JavaSourceUtils.getAstNodeFor(this, fileName);
+    ISymbolTable manyMethodsSymbolTable = new SymbolTableBuilder().getSymbolTable(manyMethods);
+    Diagnostic failure = new TypeCheckBuilder().getFirstFailure(manyMethodsSymbolTable, manyMethods);
+    assertNotNull(failure);
+    assertEquals(failure, new TypeCheckBuilder(ForkJoinPool.commonPool())
+        .getFirstFailure(manyMethodsSymbolTable, manyMethods));
+
+    ProgramGenerator generator = new ProgramGenerator(5, 3, 5, 2, 5, 4);
+    for (boolean expected : new boolean[] {true, false}) {
+      ProgramGenerator.Program program = generator.generate(expected);
+      ASTNode generated = new BatchTypeChecker().parse(program.getSource());
+      ISymbolTable generatedSymbolTable = new SymbolTableBuilder().getSymbolTable(generated);
+      assertEquals(expected, new TypeCheckBuilder().getFirstFailure(generatedSymbolTable, generated) == null);
+    }
+  }
+
+  @Test
+  @DisplayName("Should give every failure in order when collecting diagnostics")
+  void should_giveEveryFailureInOrder_when_collectingDiagnostics() {
+    String fileName = "typeChecker/should_NotProveTypeSafe_when_givenBadInits.java";
+    ASTNode compilationUnit = JavaSourceUtils.getAstNodeFor(this, fileName);
+    ISymbolTable symbolTable = new SymbolTableBuilder().getSymbolTable(compilationUnit);
+    List<Diagnostic> expected = Arrays.asList(
+        new Diagnostic(5, 5, "int := nullType"),
+        new Diagnostic(6, 5, "Integer := int"),
+        new Diagnostic(7, 5, "C := boolean"),
+        new Diagnostic(8, 5, "boolean := int"));
+    assertEquals(expected, new TypeCheckBuilder().getDiagnostics(symbolTable, compilationUnit));
+    assertEquals(expected, new TypeCheckBuilder(ForkJoinPool.commonPool())
+        .getDiagnostics(symbolTable, compilationUnit));
+
+    ProgramGenerator generator = new ProgramGenerator(5, 3, 5, 2, 5, 4);
+    for (boolean isTypeSafe : new boolean[] {true, false}) {
+      ProgramGenerator.Program program = generator.generate(isTypeSafe);
+      ASTNode generated = new BatchTypeChecker().parse(program.getSource());
+      ISymbolTable generatedSymbolTable = new SymbolTableBuilder().getSymbolTable(generated);
+      List<Diagnostic> diagnostics = new TypeCheckBuilder().getDiagnostics(generatedSymbolTable, generated);
+      assertEquals(isTypeSafe, diagnostics.isEmpty());
+      if (!isTypeSafe) {
+        assertEquals(new TypeCheckBuilder().getFirstFailure(generatedSymbolTable, generated), diagnostics.get(0));
+      }
+    }
+  }
+
+  @Test
+  @DisplayName("Should throw the reason of the symbol table builder when given unsupported local types")
+  void should_throwSameReason_when_givenUnsupportedLocalTypes() {
+    for (String type : List.of("long", "java.lang.String", "int[]")) {
+      CompilationUnit compilationUnit = new BatchTypeChecker().parse(
+          "public class C { void m() { " + type + " l = null; } }");
+      ISymbolTable symbolTable = new SymbolTableBuilder().getSymbolTable(compilationUnit);
+      MethodDeclaration method = ((TypeDeclaration) compilationUnit.types().get(0)).getMethods()[0];
+      VariableDeclarationStatement statement =
+          (VariableDeclarationStatement) method.getBody().statements().get(0);
+      String reason = TypeCheckUtils.getUnsupportedReason(statement.getType());
+      assertNotNull(reason, type);
+      RuntimeException exception = assertThrows(RuntimeException.class,
+          () -> new TypeCheckBuilder().isTypeSafe(symbolTable, compilationUnit));
+      assertEquals(reason, exception.getMessage(), type);
+    }
+  }
+
+  @Test
+  @DisplayName("Should record the type of each visited node when given node types")
+  void should_recordTypeOfEachNode_when_givenNodeTypes() {
+    String fileName = "typeChecker/should_NotProveTypeSafe_when_givenBadInits.java";
+    CompilationUnit compilationUnit = (CompilationUnit) JavaSourceUtils.getAstNodeFor(this, fileName);
+    ISymbolTable symbolTable = new SymbolTableBuilder().getSymbolTable(compilationUnit);
+    NodeTypes nodeTypes = new NodeTypes();
+    TypeCheckBuilder typeCheckBuilder = new TypeCheckBuilder();
+    typeCheckBuilder.setNodeTypes(nodeTypes);
+    assertFalse(typeCheckBuilder.isTypeSafe(symbolTable, compilationUnit));
+
+    TypeDeclaration type = (TypeDeclaration) compilationUnit.types().get(0);
+    MethodDeclaration method = type.getMethods()[0];
+    VariableDeclarationStatement statement =
+        (VariableDeclarationStatement) method.getBody().statements().get(1);
+    VariableDeclarationFragment fragment =
+        (VariableDeclarationFragment) statement.fragments().get(0);
+    assertAll(
+        () -> assertSame(TypeId.ERROR, nodeTypes.getType(compilationUnit)),
+        () -> assertSame(TypeId.ERROR, nodeTypes.getType(method)),
+        () -> assertSame(TypeId.ERROR, nodeTypes.getType(statement)),
+        () -> assertSame(symbolTable.getTypeScope().of("Integer"), nodeTypes.getType(fragment.getName())),
+        () -> assertSame(TypeId.INT, nodeTypes.getType(fragment.getInitializer())),
+        () -> assertNull(nodeTypes.getType(fragment))
+    );
+
+    NodeTypes parallelNodeTypes = new NodeTypes();
+    TypeCheckBuilder parallelTypeCheckBuilder = new TypeCheckBuilder(ForkJoinPool.commonPool());
+    parallelTypeCheckBuilder.setNodeTypes(parallelNodeTypes);
+    parallelTypeCheckBuilder.getProofTree(symbolTable, compilationUnit);
+    assertEquals(nodeTypes.size(), parallelNodeTypes.size());
+    assertSame(TypeId.INT, parallelNodeTypes.getType(fragment.getInitializer()));
+  }
+
+  @Test
+  @DisplayName("Should build the same proof iteratively when given generated programs")
+  void should_buildSameProofIteratively_when_givenGeneratedPrograms() {
+    ProgramGenerator generator = new ProgramGenerator(5, 3, 5, 2, 5, 4);
+    for (boolean expected : new boolean[] {true, false}) {
+      ProgramGenerator.Program program = generator.generate(expected);
+      ASTNode compilationUnit = new BatchTypeChecker().parse(program.getSource());
+      ISymbolTable symbolTable = new SymbolTableBuilder().getSymbolTable(compilationUnit);
+      TypeCheckBuilder iterativeBuilder = new TypeCheckBuilder();
+      iterativeBuilder.setIterative(true);
+      ProofTree proofTree = getProofTree(compilationUnit);
+      ProofTree iterativeProofTree = iterativeBuilder.getProofTree(symbolTable, compilationUnit);
+      assertEquals(expected, iterativeProofTree.isTypeSafe());
+      assertEquals(getProof(proofTree.toDynamicNodes()), getProof(iterativeProofTree.toDynamicNodes()));
+      assertEquals(new TypeCheckBuilder().getDiagnostics(symbolTable, compilationUnit),
+          iterativeBuilder.getDiagnostics(symbolTable, compilationUnit));
+      assertEquals(new TypeCheckBuilder().getFirstFailure(symbolTable, compilationUnit),
+          iterativeBuilder.getFirstFailure(symbolTable, compilationUnit));
+    }
+  }
+
+  @Test
+  @DisplayName("Should build same proof when locals are kept in a persistent symbol table")
+  void should_buildSameProof_when_localsAreKeptInPersistentSymbolTable() {
+    ProgramGenerator generator = new ProgramGenerator(5, 3, 5, 2, 5, 4);
+    for (boolean expected : new boolean[] {true, false}) {
+      ProgramGenerator.Program program = generator.generate(expected);
+      ASTNode compilationUnit = new BatchTypeChecker().parse(program.getSource());
+      ISymbolTable symbolTable =
+          new SymbolTableBuilder().getPersistentSymbolTable(compilationUnit).toSymbolTable();
+      ProofTree proofTree = new TypeCheckBuilder().getProofTree(symbolTable, compilationUnit);
+      assertEquals(expected, proofTree.isTypeSafe());
+      assertEquals(getProof(getProofTree(compilationUnit).toDynamicNodes()),
+          getProof(proofTree.toDynamicNodes()));
+    }
+  }
+
+  @Test
+  @DisplayName("Should check deeply nested blocks on a small stack when iterative")
+  void should_checkDeeplyNestedBlocksOnSmallStack_when_iterative() throws Exception {
+    int depth = 5000;
+    StringBuilder source = new StringBuilder("public class C {\n  void m() {\n");
+    source.append("{".repeat(depth)).append("int i = 1; boolean b = 0;").append("}".repeat(depth));
+    source.append("\n  }\n}\n");
+    CompilationUnit[] compilationUnit = new CompilationUnit[1];
+    Thread parser = new Thread(null,
+        () -> compilationUnit[0] = new BatchTypeChecker().parse(source.toString()), "parser", 1L << 28);
+    parser.start();
+    parser.join();
+
+    List<Object> diagnostics = new ArrayList<>();
+    Thread checker = new Thread(null, () -> {
+      ISymbolTable symbolTable = new SymbolTableBuilder().getFlatSymbolTable(compilationUnit[0]);
+      TypeCheckBuilder typeCheckBuilder = new TypeCheckBuilder();
+      typeCheckBuilder.setIterative(true);
+      diagnostics.addAll(typeCheckBuilder.getDiagnostics(symbolTable, compilationUnit[0]));
+    }, "checker", 256 * 1024);
+    checker.start();
+    checker.join();
+    assertEquals(List.of(new Diagnostic(3, depth + 12, "boolean := int")), diagnostics);
+  }
+
+  @Test
+  @DisplayName("Should build the same proof as a tree when given generated programs")
+  void should_buildSameProofAsTree_when_givenGeneratedPrograms() {
+    ProgramGenerator generator = new ProgramGenerator(5, 3, 5, 2, 5, 4);
+    for (boolean expected : new boolean[] {true, false}) {
+      ProgramGenerator.Program program = generator.generate(expected);
+      List<DynamicNode> tests = new ArrayList<>();
+      assertEquals(expected, getGeneratedTypeChecker(program, tests));
+      ProofTree proofTree = getProofTree(new BatchTypeChecker().parse(program.getSource()));
+      assertEquals(expected, TypeCheckTypes.isVoidType(proofTree.getType(0)));
+      assertEquals(expected, proofTree.passes(0));
+      assertEquals(getProof(tests), getProof(proofTree.toDynamicNodes()));
+      List<DynamicNode> lazyTests = new ArrayList<>();
+      assertEquals(expected, getLazyGeneratedTypeChecker(program, lazyTests));
+      assertEquals(getProof(lazyTests), getProof(proofTree.toDynamicNodes()));
+    }
+  }
 }
@@ -0,0 +1,127 @@
+package edu.byu.cs329.typechecker;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import edu.byu.cs329.typechecker.BatchTypeChecker.Result;
+import edu.byu.cs329.typechecker.BatchTypeChecker.Verdict;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("Tests for the TypeCheckDaemon and TypeCheckClient")
+public class TypeCheckDaemonTests {
+  TypeCheckDaemon daemon = null;
+  TypeCheckClient client = null;
+
+  @BeforeEach
+  void beforeEach() throws Exception {
+    daemon = new TypeCheckDaemon(0, 2, new BatchTypeChecker());
+    daemon.start();
+    client = new TypeCheckClient(daemon.getPort());
+  }
+
+  @AfterEach
+  void afterEach() throws Exception {
+    daemon.close();
+  }
+
+  private Path getResourcePath(String name) throws Exception {
+    return Paths.get(getClass().getClassLoader().getResource(name).toURI());
+  }
+
+  @Test
+  @DisplayName("Should give the in-process result when given files")
+  void should_giveInProcessResult_when_givenFiles() throws Exception {
+    BatchTypeChecker checker = new BatchTypeChecker();
+    for (Path file : BatchTypeChecker.findJavaFiles(getResourcePath("typeChecker"))) {
+      Result result = client.check(file, true);
+      Result expected = checker.check(file, true);
+      assertEquals(expected.getVerdict(), result.getVerdict(), file.toString());
+      assertEquals(file, result.getPath());
+      if (expected.getProofTree() == null) {
+        assertNull(result.getProofTree());
+      } else {
+        assertEquals(expected.getProofTree().getFailedJudgments(),
+            result.getProofTree().getFailedJudgments(), file.toString());
+      }
+    }
+  }
+
+  @Test
+  @DisplayName("Should give the verdict without the proof when given source not asking for it")
+  void should_giveVerdictWithoutProof_when_givenSourceNotAskingForIt() {
+    Result result = client.checkSource("public class C { void m() { int i = true; } }", false);
+    assertEquals(Verdict.NOT_TYPE_SAFE, result.getVerdict());
+    assertNull(result.getProofTree());
+  }
+
+  @Test
+  @DisplayName("Should check in process when given no daemon")
+  void should_checkInProcess_when_givenNoDaemon() throws Exception {
+    daemon.close();
+    Result result = client.checkSource("public class C { void m() { int i = true; } }", true);
+    assertEquals(Verdict.NOT_TYPE_SAFE, result.getVerdict());
+    assertNotNull(result.getProofTree());
+    assertFalse(result.getProofTree().getFailedJudgments().isEmpty());
+  }
+
+  @Test
+  @DisplayName("Should close the connection when a client sends no request")
+  void should_closeConnection_when_clientSendsNoRequest() throws Exception {
+    daemon.setReadTimeout(100);
+    Socket[] idle = new Socket[2];
+    for (int i = 0; i < idle.length; ++i) {
+      idle[i] = new Socket(InetAddress.getLoopbackAddress(), daemon.getPort());
+      idle[i].setSoTimeout(5000);
+    }
+    for (Socket socket : idle) {
+      try (Socket connection = socket) {
+        assertEquals(-1, connection.getInputStream().read());
+      }
+    }
+    Result result = client.checkSource("public class C { void m() { int i = true; } }", false);
+    assertEquals(Verdict.NOT_TYPE_SAFE, result.getVerdict());
+  }
+
+  private String requestFile(Path file) throws Exception {
+    try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), daemon.getPort())) {
+      DataOutputStream out = new DataOutputStream(socket.getOutputStream());
+      out.writeByte(TypeCheckDaemon.CHECK_FILE);
+      out.writeByte(0);
+      TypeCheckDaemon.writeString(out, file.toString());
+      out.flush();
+      DataInputStream in = new DataInputStream(socket.getInputStream());
+      in.readByte();
+      in.readLong();
+      return TypeCheckDaemon.readString(in);
+    }
+  }
+
+  @Test
+  @DisplayName("Should refuse to read a file when given a file outside the root")
+  void should_refuseToReadFile_when_givenFileOutsideRoot() throws Exception {
+    Path root = getResourcePath("typeChecker");
+    Path inside = root.resolve("should_proveTypeSafe_when_givenManyMethods.java");
+    Path outside = getResourcePath("symbolTable/should_addAllFields_when_allFieldsCorrectlyDeclared.java");
+    assertEquals(TypeCheckDaemon.REFUSED_MESSAGE, requestFile(inside));
+
+    daemon.setRoot(root);
+    assertNotEquals(TypeCheckDaemon.REFUSED_MESSAGE, requestFile(inside));
+    assertEquals(TypeCheckDaemon.REFUSED_MESSAGE, requestFile(outside));
+    assertEquals(TypeCheckDaemon.REFUSED_MESSAGE, requestFile(root.resolve("..").resolve("symbolTable")
+        .resolve(outside.getFileName())));
+    assertEquals(TypeCheckDaemon.REFUSED_MESSAGE, requestFile(root.resolve("missing.java")));
+    assertEquals(Verdict.TYPE_SAFE, client.check(outside, false).getVerdict());
+  }
+}
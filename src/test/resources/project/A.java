@@ -0,0 +1,4 @@
+package project;
+
+public class A {
+}
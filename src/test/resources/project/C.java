@@ -0,0 +1,8 @@
+package project;
+
+public class C extends B {
+  void m(C c) {
+    A a = c;
+    B b = c;
+  }
+}
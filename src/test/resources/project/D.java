@@ -0,0 +1,7 @@
+package project;
+
+public class D {
+  void m(D d) {
+    A a = d;
+  }
+}
@@ -0,0 +1,16 @@
+package symbolTable;
+
+class A {
+
+}
+
+class B extends A {
+
+}
+
+class C extends B {
+  void m(C c) {
+    A a = c;
+    B b = c;
+  }
+}
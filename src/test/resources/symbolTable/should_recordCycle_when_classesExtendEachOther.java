@@ -0,0 +1,9 @@
+package symbolTable;
+
+class A extends B {
+
+}
+
+class B extends A {
+
+}
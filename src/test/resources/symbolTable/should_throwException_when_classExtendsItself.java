@@ -0,0 +1,5 @@
+package symbolTable;
+
+public class C extends C {
+
+}
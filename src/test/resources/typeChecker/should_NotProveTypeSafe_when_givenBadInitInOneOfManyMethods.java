@@ -0,0 +1,15 @@
+package typeChecker;
+
+public class C {
+  void m(int i) {
+    int j = i;
+  }
+
+  void n(boolean b) {
+    int k = b;
+  }
+
+  void o() {
+    C c = null;
+  }
+}
@@ -0,0 +1,7 @@
+package typeChecker;
+
+public class C extends B {
+  void m(B b) {
+    C c = b;
+  }
+}
@@ -0,0 +1,26 @@
+package typeChecker;
+
+public class C {
+  int f;
+
+  void m(int i) {
+    int j = 10;
+    C c = null;
+  }
+
+  boolean n(boolean b, C c) {
+    boolean d = b;
+    {
+      C e = c;
+    }
+  }
+
+  int o() {
+    {
+      int k = 1;
+    }
+    {
+      Integer l = null;
+    }
+  }
+}
@@ -0,0 +1,9 @@
+package typeChecker;
+
+public class C extends B {
+  void m(C c) {
+    B b = c;
+    C d = c;
+    B e = null;
+  }
+}